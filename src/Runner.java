@@ -1,44 +1,88 @@
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 
-import com.ian4d.ai2048.Board;
-import com.ian4d.ai2048.Game;
+import com.ian4d.ai2048.Tournament;
+import com.ian4d.ai2048.TournamentResult;
+import com.ian4d.ai2048.events.IProgressListener;
+import com.ian4d.ai2048.metrics.GameMetrics;
 import com.ian4d.ai2048.players.AllDown;
 import com.ian4d.ai2048.players.AllLeft;
 import com.ian4d.ai2048.players.AllRight;
 import com.ian4d.ai2048.players.AllUp;
+import com.ian4d.ai2048.players.ClassPlayerFactory;
+import com.ian4d.ai2048.players.ExpectimaxPlayer;
+import com.ian4d.ai2048.players.HeuristicPlayer;
 import com.ian4d.ai2048.players.IPlayer;
+import com.ian4d.ai2048.players.IPlayerFactory;
+import com.ian4d.ai2048.players.ITranspositionTable;
+import com.ian4d.ai2048.players.MappedTranspositionTable;
 import com.ian4d.ai2048.players.Pattern1;
 import com.ian4d.ai2048.players.RandomPattern;
+import com.ian4d.ai2048.players.RowHeuristic;
+import com.ian4d.ai2048.players.SharedTranspositionTable;
 
 
 public class Runner {
 
-	public static void main(String[] args) {
-		Board board = Board.createBoard(4, 11);
-		
-		List<IPlayer> players = new ArrayList<IPlayer>();
-		players.add(new RandomPattern());
-		players.add(new AllDown());
-		players.add(new AllLeft());
-		players.add(new AllRight());
-		players.add(new AllUp());
-		players.add(new Pattern1());
-		
-		Game game = Game.newGame(4, 11, players.get(0));
-		int winCount = 0;
-		int loseCount = 0;
-		while (winCount + loseCount < 100) {
-			while (!game.makeMove()) {
-				game.printBoard();
-				game.startNextTurn();
+	/**
+	 * @param args An optional file that keeps expectimax positions between runs
+	 */
+	public static void main(String[] args) throws InterruptedException, IOException {
+		List<IPlayerFactory> players = new ArrayList<IPlayerFactory>();
+		players.add(new ClassPlayerFactory(RandomPattern.class));
+		players.add(new ClassPlayerFactory(AllDown.class));
+		players.add(new ClassPlayerFactory(AllLeft.class));
+		players.add(new ClassPlayerFactory(AllRight.class));
+		players.add(new ClassPlayerFactory(AllUp.class));
+		players.add(new ClassPlayerFactory(Pattern1.class));
+		players.add(new ClassPlayerFactory(HeuristicPlayer.class));
+		// Every expectimax game shares one cache instead of allocating its own
+		final ITranspositionTable table;
+		if (args.length > 0) {
+			table = new MappedTranspositionTable(Paths.get(args[0]), 22, RowHeuristic.getDefault().getFingerprint());
+		} else {
+			table = new SharedTranspositionTable(22);
+		}
+		players.add(new IPlayerFactory() {
+			@Override
+			public IPlayer createPlayer() {
+				return new ExpectimaxPlayer(ExpectimaxPlayer.DEFAULT_DEPTH, table, RowHeuristic.getDefault());
+			}
+
+			@Override
+			public String getPlayerName() {
+				return ExpectimaxPlayer.class.getSimpleName();
+			}
+		});
+
+		Tournament tournament = Tournament.newTournament(4, 11, Runtime.getRuntime().availableProcessors());
+		GameMetrics metrics = new GameMetrics();
+		tournament.addGameListener(metrics);
+		// Slow players take a while, so show how they are doing every so often
+		tournament.setProgressListener(new IProgressListener() {
+			@Override
+			public void progressReported(TournamentResult snapshot) {
+				System.out.println("... " + snapshot.getStatistics());
+			}
+		}, 10000);
+		try {
+			for (IPlayerFactory player : players) {
+				metrics.reset();
+				// Positions from the last batch are the first to be replaced
+				table.age();
+				TournamentResult result = tournament.play(player, 100);
+				System.out.println(result);
+				System.out.println(result.getStatistics());
+				System.out.println(metrics);
+			}
+		} finally {
+			tournament.shutdown();
+			if (table instanceof MappedTranspositionTable) {
+				((MappedTranspositionTable) table).close();
 			}
-			winCount = game.getWinCount();
-			loseCount = game.getLoseCount();
-			game.restart();
 		}
-		System.out.println("Win Count: " + winCount);
-		System.out.println("Lose Count: " + loseCount);
 	}
 
 }
@@ -0,0 +1,100 @@
+package com.ian4d.ai2048;
+
+/**
+ * The board that a move would leave behind, before a new tile is spawned.
+ *
+ * Afterstates are filled in by Board.previewMoves and are meant to be reused
+ * between calls, so their tile array is only reallocated when the board size
+ * changes.
+ */
+public class Afterstate {
+
+	private Direction direction;
+	private boolean changed;
+	private int scoreGain;
+	private int emptyCount;
+	private int[] tiles = new int[0];
+	private long packed;
+
+	/**
+	 * Prepares the afterstate to be filled in for a move
+	 * @param direction The move being previewed
+	 * @param size The number of tiles on the board
+	 * @return the tile array to fill, row by row
+	 */
+	int[] reset(Direction direction, int size) {
+		this.direction = direction;
+		this.changed = false;
+		this.scoreGain = 0;
+		this.emptyCount = 0;
+		this.packed = 0;
+		if (tiles.length != size) {
+			tiles = new int[size];
+		}
+		return tiles;
+	}
+
+	void set(boolean changed, int scoreGain, int emptyCount) {
+		this.changed = changed;
+		this.scoreGain = scoreGain;
+		this.emptyCount = emptyCount;
+	}
+
+	void setPacked(long packed) {
+		this.packed = packed;
+	}
+
+	/**
+	 * @return the direction
+	 */
+	public Direction getDirection() {
+		return direction;
+	}
+
+	/**
+	 * @return true if the move changes the board
+	 */
+	public boolean isChanged() {
+		return changed;
+	}
+
+	/**
+	 * @return the score the move would add
+	 */
+	public int getScoreGain() {
+		return scoreGain;
+	}
+
+	/**
+	 * @return the number of empty tiles after the move
+	 */
+	public int getEmptyCount() {
+		return emptyCount;
+	}
+
+	/**
+	 * @param row The row to get
+	 * @param col The column to get
+	 * @param dim The size of each side of the board
+	 * @return the value at row, col after the move
+	 */
+	public int getTileValue(int row, int col, int dim) {
+		return tiles[row * dim + col];
+	}
+
+	/**
+	 * @return the tiles after the move, row by row. Owned by the afterstate,
+	 * so copy it before previewing again.
+	 */
+	public int[] getTiles() {
+		return tiles;
+	}
+
+	/**
+	 * @return the packed board after the move, only set when previewing a
+	 * BitBoard
+	 */
+	public long getPacked() {
+		return packed;
+	}
+}
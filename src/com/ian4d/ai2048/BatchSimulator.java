@@ -0,0 +1,172 @@
+package com.ian4d.ai2048;
+
+import com.ian4d.ai2048.players.IBatchPolicy;
+
+/**
+ * Plays many 4x4 games in lockstep with a batched policy.
+ *
+ * The games live in parallel arrays, one packed BitBoard, score and turn
+ * count per slot, with no Game, Board or player object per game. Each step
+ * asks the policy for every game's move in a single call, then applies the
+ * moves and spawns a tile on every board in one pass. When a game ends its
+ * result is recorded and the slot starts the next game, until the requested
+ * number of games have been started. Slots with nothing left to play are
+ * swapped to the end of the arrays, so the live games stay contiguous.
+ *
+ * A move that doesn't change its board is replaced by the next direction, in
+ * Direction order, that does. A game ends when no direction changes the
+ * board, so unlike Game a policy can't stall a game forever. Games start
+ * with a single tile, like a Game after its first turn.
+ */
+public class BatchSimulator {
+
+	public static final int DEFAULT_BATCH_SIZE = 4096;
+
+	private static final Direction[] DIRECTIONS = Direction.values();
+
+	// Lowest bit of every nibble
+	private static final long NIBBLE_LOW_BITS = 0x1111111111111111L;
+
+	// A spawn is a 2 when the top 24 bits of its random long fall below this
+	private static final long TWO_THRESHOLD = (long) (Game.TWO_PROBABILITY * (1 << 24));
+
+	/**
+	 * Creates a simulator with the default batch size
+	 * @param maxPower The maximum power of 2 counted as a win
+	 * @return
+	 */
+	public static BatchSimulator newBatchSimulator(int maxPower) {
+		return newBatchSimulator(DEFAULT_BATCH_SIZE, maxPower, new SplittableRandomSource());
+	}
+
+	/**
+	 * Creates a simulator
+	 * @param batchSize The number of games played at once
+	 * @param maxPower The maximum power of 2 counted as a win
+	 * @param random Places every tile, so a seeded source with a
+	 * deterministic policy reproduces every game
+	 * @return
+	 */
+	public static BatchSimulator newBatchSimulator(int batchSize, int maxPower, IRandomSource random) {
+		if (batchSize < 1) {
+			throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+		}
+		if (maxPower > BitBoard.MAX_EXPONENT) {
+			throw new IllegalArgumentException("Packed boards only hold powers up to " + BitBoard.MAX_EXPONENT);
+		}
+		BatchSimulator simulator = new BatchSimulator();
+		simulator.boards = new long[batchSize];
+		simulator.scores = new int[batchSize];
+		simulator.turns = new int[batchSize];
+		simulator.moves = new byte[batchSize];
+		simulator.maxPower = maxPower;
+		simulator.random = random;
+		return simulator;
+	}
+
+	private long[] boards;
+	private int[] scores;
+	private int[] turns;
+	private byte[] moves;
+	private int maxPower;
+	private IRandomSource random;
+
+	// Games in slots 0 to live - 1 are being played
+	private int live = 0;
+	private long remaining = 0;
+	private long totalMoves = 0;
+	private TournamentResult result;
+
+	/**
+	 * Plays games with a policy until all of them have ended
+	 * @param policy Chooses the moves of every game
+	 * @param games The number of games to play
+	 * @return The results of every game
+	 */
+	public TournamentResult play(IBatchPolicy policy, long games) {
+		long start = System.nanoTime();
+		result = new TournamentResult(policy.getClass().getSimpleName());
+		remaining = games;
+		live = 0;
+		while (live < boards.length && remaining > 0) {
+			startGame(live++);
+		}
+		while (live > 0) {
+			step(policy);
+		}
+		result.setElapsedNanos(System.nanoTime() - start);
+		return result;
+	}
+
+	/**
+	 * @return the number of moves applied since the simulator was created
+	 */
+	public long getTotalMoves() {
+		return totalMoves;
+	}
+
+	/**
+	 * Plays one move on every live game. Slots are walked from the end, so a
+	 * finished slot can be refilled from the last live slot, which has
+	 * already played this step.
+	 */
+	private void step(IBatchPolicy policy) {
+		policy.chooseMoves(boards, live, moves);
+		for (int i = live - 1; i >= 0; i--) {
+			long board = boards[i];
+			int move = moves[i] % DIRECTIONS.length;
+			long next = DIRECTIONS[move].apply(board);
+			for (int k = 1; next == board && k < DIRECTIONS.length; k++) {
+				move = (move + 1) % DIRECTIONS.length;
+				next = DIRECTIONS[move].apply(board);
+			}
+			if (next == board) {
+				endGame(i);
+				continue;
+			}
+			scores[i] += DIRECTIONS[move].score(board);
+			turns[i]++;
+			boards[i] = spawn(next);
+			totalMoves++;
+		}
+	}
+
+	private void endGame(int slot) {
+		int maxTile = 1 << BitBoard.maxExponent(boards[slot]);
+		result.addGame(maxTile >= 1 << maxPower, true, scores[slot], turns[slot], maxTile);
+		if (remaining > 0) {
+			startGame(slot);
+			return;
+		}
+		int last = --live;
+		boards[slot] = boards[last];
+		scores[slot] = scores[last];
+		turns[slot] = turns[last];
+	}
+
+	private void startGame(int slot) {
+		boards[slot] = spawn(0L);
+		scores[slot] = 0;
+		turns[slot] = 0;
+		remaining--;
+	}
+
+	/**
+	 * Places a 2 or a 4 on a random empty tile using a single random long, 
+	 * with the same odds as BitBoard.spawnRandomTile. The board always has an
+	 * empty tile, since a move just changed it.
+	 */
+	private long spawn(long board) {
+		long bits = random.nextLong();
+		long filled = board | (board >>> 1);
+		filled |= filled >>> 2;
+		long empty = ~filled & NIBBLE_LOW_BITS;
+		// Scale the low 32 bits to pick one of the empty tiles
+		long n = ((bits & 0xFFFFFFFFL) * Long.bitCount(empty)) >>> 32;
+		for (; n > 0; n--) {
+			empty &= empty - 1;
+		}
+		long exponent = (bits >>> 40) < TWO_THRESHOLD ? 1 : 2;
+		return board | (exponent << Long.numberOfTrailingZeros(empty));
+	}
+}
@@ -0,0 +1,652 @@
+package com.ian4d.ai2048;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A standard 4x4 board packed into a single long.
+ *
+ * Each tile is stored as a 4-bit exponent (0 for an empty tile, n for a tile
+ * with the value 2^n). Tile (row, col) lives in nibble row * 4 + col, counting
+ * from the least significant end, so each row occupies 16 contiguous bits with
+ * its left most tile in the lowest nibble.
+ *
+ * Moves are resolved with one lookup per row into precomputed tables that hold
+ * the result of sliding every possible row. Vertical moves transpose the board,
+ * slide the rows and transpose back.
+ *
+ * Moves follow the standard 2048 rule that a tile can only take part in one
+ * merge per move, and a move that doesn't change the board is simply a no-op.
+ */
+public class BitBoard extends Board {
+
+	public static final int DIM = 4;
+	public static final int MAX_EXPONENT = 15;
+
+	private static final int ROW_MASK = 0xFFFF;
+	private static final long CELL_MASK = 0xFL;
+	private static final Direction[] DIRECTIONS = Direction.values();
+
+	// Result of sliding each possible row towards its lowest nibble
+	private static final char[] ROW_LEFT = new char[1 << 16];
+
+	// Result of sliding each possible row towards its highest nibble
+	private static final char[] ROW_RIGHT = new char[1 << 16];
+
+	// Score gained by sliding each possible row, which is the same either way
+	private static final int[] ROW_SCORE = new int[1 << 16];
+
+	static {
+		for (int row = 0; row <= ROW_MASK; row++) {
+			int[] line = unpackRow(row);
+			ROW_SCORE[row] = slideLine(line);
+			int left = packRow(line);
+			ROW_LEFT[row] = (char) left;
+			ROW_RIGHT[reverseRow(row)] = (char) reverseRow(left);
+		}
+	}
+
+	/**
+	 * Creates a new packed 4x4 board
+	 * @param maxPower The maximum power of 2 which the user is trying to reach.
+	 * @return
+	 */
+	public static BitBoard createBitBoard(int maxPower) {
+		return createBitBoard(maxPower, new SplittableRandomSource());
+	}
+
+	/**
+	 * Creates a new packed 4x4 board
+	 * @param maxPower The maximum power of 2 which the user is trying to reach.
+	 * @param random The source used to place new tiles
+	 * @return
+	 */
+	public static BitBoard createBitBoard(int maxPower, IRandomSource random) {
+		if (!supports(DIM, maxPower)) {
+			throw new IllegalArgumentException("Packed boards only hold powers up to " + MAX_EXPONENT);
+		}
+		BitBoard board = new BitBoard();
+		board.maxPower = maxPower;
+		board.setRandom(random);
+		board.init();
+		return board;
+	}
+
+	/**
+	 * Checks whether a board of the given size can be packed
+	 * @param dim The size of each side of the board
+	 * @param maxPower The maximum power of 2 which the user is trying to reach.
+	 * @return true if the board fits in a BitBoard
+	 */
+	public static boolean supports(int dim, int maxPower) {
+		return dim == DIM && maxPower <= MAX_EXPONENT;
+	}
+
+	private long board;
+	private int maxPower = MAX_POWER;
+	private int score = 0;
+
+	@Override
+	public void empty() {
+		board = 0;
+		score = 0;
+		setLastMove(null);
+		setLastSpawnIndex(-1);
+		setMoveCount(0);
+	}
+
+	@Override
+	public boolean moveLeft() {
+		return update(slideLeft(board), scoreRows(board), Direction.LEFT);
+	}
+
+	@Override
+	public boolean moveRight() {
+		return update(slideRight(board), scoreRows(board), Direction.RIGHT);
+	}
+
+	@Override
+	public boolean moveUp() {
+		return update(slideUp(board), scoreRows(transpose(board)), Direction.UP);
+	}
+
+	@Override
+	public boolean moveDown() {
+		return update(slideDown(board), scoreRows(transpose(board)), Direction.DOWN);
+	}
+
+	/**
+	 * Populates a random empty tile with value
+	 * @return false if there was no empty tile to fill
+	 */
+	@Override
+	public boolean fillRandomTile(int value) {
+		setLastSpawnIndex(-1);
+		int empty = countEmpty(board);
+		if (empty == 0 || !isTileValue(value)) {
+			return false;
+		}
+		int index = emptyTileIndex(board, getRandom().nextInt(empty));
+		board |= (long) exponentOf(value) << (4 * index);
+		setLastSpawnIndex(index);
+		return true;
+	}
+
+	@Override
+	public Afterstate[] previewMoves(Afterstate[] afterstates) {
+		if (afterstates == null || afterstates.length < DIRECTIONS.length) {
+			afterstates = new Afterstate[DIRECTIONS.length];
+		}
+		long transposed = transpose(board);
+		int horizontalGain = scoreRows(board);
+		int verticalGain = scoreRows(transposed);
+		for (Direction direction : DIRECTIONS) {
+			Afterstate afterstate = afterstates[direction.ordinal()];
+			if (afterstate == null) {
+				afterstate = new Afterstate();
+				afterstates[direction.ordinal()] = afterstate;
+			}
+			int[] cells = afterstate.reset(direction, DIM * DIM);
+			long next = direction.apply(board);
+			boolean changed = next != board;
+			int gained = 0;
+			if (changed) {
+				gained = direction == Direction.LEFT || direction == Direction.RIGHT ? horizontalGain : verticalGain;
+			}
+			for (int i = 0; i < DIM * DIM; i++) {
+				int exponent = (int) (next >>> (4 * i)) & 0xF;
+				cells[i] = exponent == 0 ? 0 : 1 << exponent;
+			}
+			afterstate.setPacked(next);
+			afterstate.set(changed, gained, countEmpty(next));
+		}
+		return afterstates;
+	}
+
+	@Override
+	public boolean hasLegalMoves() {
+		return canMoveLeft() || canMoveRight() || canMoveUp() || canMoveDown();
+	}
+
+	@Override
+	public boolean isTileEmpty(int row, int col) {
+		return getExponent(row, col) == 0;
+	}
+
+	/**
+	 * Empty tiles are derived from the packed board, so there is no separate
+	 * set to maintain
+	 * @return true if the tile at row, col is empty
+	 */
+	@Override
+	public boolean addEmptyTile(int row, int col) {
+		return isValidLocation(row, col) && isTileEmpty(row, col);
+	}
+
+	/**
+	 * Empty tiles are derived from the packed board, so there is no separate
+	 * set to maintain
+	 * @return true if the tile at row, col is filled
+	 */
+	@Override
+	public boolean removeEmptyTile(int row, int col) {
+		return isValidLocation(row, col) && !isTileEmpty(row, col);
+	}
+
+	/**
+	 * Sets the tile at row, col to value
+	 * @return false if the location is invalid or value isn't 0 or a power of
+	 * 2 that fits in a nibble
+	 */
+	@Override
+	public boolean setTileValue(int row, int col, int value) {
+		if (!isValidLocation(row, col) || !(value == 0 || isTileValue(value))) {
+			return false;
+		}
+		int shift = 4 * (row * DIM + col);
+		board = (board & ~(CELL_MASK << shift)) | ((long) exponentOf(value) << shift);
+		return true;
+	}
+
+	@Override
+	public int getTileValue(int row, int col) {
+		if (!isValidLocation(row, col)) {
+			return -1;
+		}
+		int exponent = getExponent(row, col);
+		return exponent == 0 ? 0 : 1 << exponent;
+	}
+
+	@Override
+	public boolean isValidLocation(int row, int col) {
+		return (row >= 0 && row < DIM && col >= 0 && col < DIM);
+	}
+
+	@Override
+	public boolean moveTileUp(int row, int col) {
+		return moveTile(row, col, row - 1, col);
+	}
+
+	@Override
+	public boolean moveTileDown(int row, int col) {
+		return moveTile(row, col, row + 1, col);
+	}
+
+	@Override
+	public boolean moveTileLeft(int row, int col) {
+		return moveTile(row, col, row, col - 1);
+	}
+
+	@Override
+	public boolean moveTileRight(int row, int col) {
+		return moveTile(row, col, row, col + 1);
+	}
+
+	@Override
+	public boolean canTilesMerge(int row1, int col1, int row2, int col2) {
+		return isValidLocation(row1, col1) && isValidLocation(row2, col2)
+				&& getExponent(row1, col1) == getExponent(row2, col2);
+	}
+
+	@Override
+	public boolean mergeLeft(int row, int col) {
+		return mergeTile(row, col, row, col - 1);
+	}
+
+	@Override
+	public boolean mergeRight(int row, int col) {
+		return mergeTile(row, col, row, col + 1);
+	}
+
+	@Override
+	public boolean mergeUp(int row, int col) {
+		return mergeTile(row, col, row - 1, col);
+	}
+
+	@Override
+	public boolean mergeDown(int row, int col) {
+		return mergeTile(row, col, row + 1, col);
+	}
+
+	@Override
+	public boolean canMoveLeft() {
+		return slideLeft(board) != board;
+	}
+
+	@Override
+	public boolean canMoveRight() {
+		return slideRight(board) != board;
+	}
+
+	@Override
+	public boolean canMoveUp() {
+		return slideUp(board) != board;
+	}
+
+	@Override
+	public boolean canMoveDown() {
+		return slideDown(board) != board;
+	}
+
+	/**
+	 * @return a copy of the tiles, changes to it are not reflected on the board
+	 */
+	@Override
+	public int[][] getTiles() {
+		int[][] tiles = new int[DIM][DIM];
+		for (int i = 0; i < DIM; i++) {
+			for (int j = 0; j < DIM; j++) {
+				tiles[i][j] = getTileValue(i, j);
+			}
+		}
+		return tiles;
+	}
+
+	/**
+	 * @param tiles the tiles to copy onto the board
+	 */
+	@Override
+	public void setTiles(int[][] tiles) {
+		empty();
+		for (int i = 0; i < DIM; i++) {
+			for (int j = 0; j < DIM; j++) {
+				setTileValue(i, j, tiles[i][j]);
+			}
+		}
+	}
+
+	@Override
+	public int getDim() {
+		return DIM;
+	}
+
+	@Override
+	public int getMaxPower() {
+		return maxPower;
+	}
+
+	/**
+	 * @return a snapshot of the empty tiles as "row,col" strings
+	 */
+	@Override
+	public List<String> getEmptyTiles() {
+		List<String> emptyTiles = new ArrayList<String>();
+		for (int i = 0; i < DIM; i++) {
+			for (int j = 0; j < DIM; j++) {
+				if (isTileEmpty(i, j)) {
+					emptyTiles.add(i + "," + j);
+				}
+			}
+		}
+		return emptyTiles;
+	}
+
+	@Override
+	public int getScore() {
+		return score;
+	}
+
+	/**
+	 * @return the highest tile, read from the packed board in a fixed 16
+	 * steps, which costs less than tracking it through every move
+	 */
+	@Override
+	public int getMaxTile() {
+		int exponent = maxExponent(board);
+		return exponent == 0 ? 0 : 1 << exponent;
+	}
+
+	@Override
+	public int getEmptyTileCount() {
+		return countEmpty(board);
+	}
+
+	/**
+	 * @return the packed board
+	 */
+	public long getPackedBoard() {
+		return board;
+	}
+
+	/**
+	 * @param board the packed board to set
+	 */
+	public void setPackedBoard(long board) {
+		this.board = board;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < DIM; i++) {
+			for (int j = 0; j < DIM; j++) {
+				sb.append(getTileValue(i, j));
+				sb.append("\t");
+			}
+			sb.append("\n");
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Packs any 4x4 board into the BitBoard layout
+	 * @param source The board to pack
+	 * @return The packed board
+	 */
+	public static long pack(IBoardView source) {
+		if (source instanceof BitBoard) {
+			return ((BitBoard) source).board;
+		}
+		if (source.getDim() != DIM) {
+			throw new IllegalArgumentException("Only " + DIM + "x" + DIM + " boards can be packed");
+		}
+		long packed = 0;
+		for (int i = 0; i < DIM * DIM; i++) {
+			long exponent = exponentOf(source.getTileValue(i / DIM, i % DIM));
+			if (exponent > MAX_EXPONENT) {
+				throw new IllegalArgumentException("Tile too large to pack: " + source.getTileValue(i / DIM, i % DIM));
+			}
+			packed |= exponent << (4 * i);
+		}
+		return packed;
+	}
+
+	/**
+	 * Slides every row of a packed board left
+	 * @param board The packed board
+	 * @return The packed board after the move
+	 */
+	public static long slideLeft(long board) {
+		long result = board;
+		for (int i = 0; i < DIM; i++) {
+			int shift = 16 * i;
+			int row = (int) (board >>> shift) & ROW_MASK;
+			result ^= (long) (row ^ ROW_LEFT[row]) << shift;
+		}
+		return result;
+	}
+
+	/**
+	 * Slides every row of a packed board right
+	 * @param board The packed board
+	 * @return The packed board after the move
+	 */
+	public static long slideRight(long board) {
+		long result = board;
+		for (int i = 0; i < DIM; i++) {
+			int shift = 16 * i;
+			int row = (int) (board >>> shift) & ROW_MASK;
+			result ^= (long) (row ^ ROW_RIGHT[row]) << shift;
+		}
+		return result;
+	}
+
+	/**
+	 * Slides every column of a packed board up
+	 * @param board The packed board
+	 * @return The packed board after the move
+	 */
+	public static long slideUp(long board) {
+		return transpose(slideLeft(transpose(board)));
+	}
+
+	/**
+	 * Slides every column of a packed board down
+	 * @param board The packed board
+	 * @return The packed board after the move
+	 */
+	public static long slideDown(long board) {
+		return transpose(slideRight(transpose(board)));
+	}
+
+	/**
+	 * Places a 2 or a 4 on a random empty tile of a packed board, with the
+	 * same odds as Game.startNextTurn
+	 * @param board The packed board
+	 * @param random The source used to place the tile
+	 * @return The packed board with the new tile, or board if it was full
+	 */
+	public static long spawnRandomTile(long board, IRandomSource random) {
+		int empty = countEmpty(board);
+		if (empty == 0) {
+			return board;
+		}
+		int exponent = random.nextDouble() < Game.TWO_PROBABILITY ? 1 : 2;
+		return placeTile(board, random.nextInt(empty), exponent);
+	}
+
+	/**
+	 * Places a tile on the nth empty tile of a packed board
+	 * @param board The packed board
+	 * @param emptyIndex Which empty tile to fill, counting from tile 0, 0
+	 * @param exponent The exponent of the new tile
+	 * @return The packed board with the new tile
+	 */
+	public static long placeTile(long board, int emptyIndex, int exponent) {
+		int index = emptyTileIndex(board, emptyIndex);
+		return index < 0 ? board : board | ((long) exponent << (4 * index));
+	}
+
+	/**
+	 * Finds the nth empty tile of a packed board
+	 * @param board The packed board
+	 * @param emptyIndex Which empty tile to find, counting from tile 0, 0
+	 * @return The tile index (row * 4 + col), or -1 if there are too few
+	 * empty tiles
+	 */
+	public static int emptyTileIndex(long board, int emptyIndex) {
+		for (int i = 0; i < DIM * DIM; i++) {
+			if (((board >>> (4 * i)) & CELL_MASK) == 0 && emptyIndex-- == 0) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Sums the score gained by sliding every row of a packed board
+	 * horizontally. Transpose the board first to score a vertical move.
+	 * @param board The packed board
+	 * @return The sum of every tile created by merges
+	 */
+	public static int scoreRows(long board) {
+		int score = 0;
+		for (int i = 0; i < DIM; i++) {
+			score += ROW_SCORE[(int) (board >>> (16 * i)) & ROW_MASK];
+		}
+		return score;
+	}
+
+	/**
+	 * Swaps the rows and columns of a packed board
+	 * @param board The packed board
+	 * @return The transposed board
+	 */
+	public static long transpose(long board) {
+		long a1 = board & 0xF0F00F0FF0F00F0FL;
+		long a2 = board & 0x0000F0F00000F0F0L;
+		long a3 = board & 0x0F0F00000F0F0000L;
+		long a = a1 | (a2 << 12) | (a3 >>> 12);
+		long b1 = a & 0xFF00FF0000FF00FFL;
+		long b2 = a & 0x00FF00FF00000000L;
+		long b3 = a & 0x00000000FF00FF00L;
+		return b1 | (b2 >>> 24) | (b3 << 24);
+	}
+
+	/**
+	 * Counts the empty tiles of a packed board
+	 * @param board The packed board
+	 * @return The number of empty tiles
+	 */
+	public static int countEmpty(long board) {
+		// Fold each nibble onto its lowest bit, leaving a 1 for every filled tile
+		long filled = board | (board >>> 1);
+		filled |= filled >>> 2;
+		filled &= 0x1111111111111111L;
+		return DIM * DIM - Long.bitCount(filled);
+	}
+
+	/**
+	 * Finds the largest tile of a packed board
+	 * @param board The packed board
+	 * @return The exponent of the largest tile, 0 if the board is empty
+	 */
+	public static int maxExponent(long board) {
+		int max = 0;
+		for (int i = 0; i < DIM * DIM; i++) {
+			max = Math.max(max, (int) ((board >>> (4 * i)) & CELL_MASK));
+		}
+		return max;
+	}
+
+	/**
+	 * Slides a line of exponents towards index 0, merging each tile at most once
+	 * @param line The exponents to slide
+	 * @return The sum of every tile created by merges
+	 */
+	private static int slideLine(int[] line) {
+		int score = 0;
+		int target = 0;
+		boolean canMerge = false;
+		for (int i = 0; i < line.length; i++) {
+			int exponent = line[i];
+			if (exponent == 0) {
+				continue;
+			}
+			line[i] = 0;
+			if (canMerge && line[target - 1] == exponent && exponent < MAX_EXPONENT) {
+				line[target - 1]++;
+				score += 1 << line[target - 1];
+				canMerge = false;
+			} else {
+				line[target++] = exponent;
+				canMerge = true;
+			}
+		}
+		return score;
+	}
+
+	private static int[] unpackRow(int row) {
+		int[] line = new int[DIM];
+		for (int i = 0; i < DIM; i++) {
+			line[i] = (row >>> (4 * i)) & 0xF;
+		}
+		return line;
+	}
+
+	private static int packRow(int[] line) {
+		int row = 0;
+		for (int i = 0; i < DIM; i++) {
+			row |= line[i] << (4 * i);
+		}
+		return row;
+	}
+
+	private static int reverseRow(int row) {
+		return ((row & 0xF) << 12) | ((row & 0xF0) << 4) | ((row >>> 4) & 0xF0) | ((row >>> 12) & 0xF);
+	}
+
+	private static boolean isTileValue(int value) {
+		return value > 1 && Integer.bitCount(value) == 1 && exponentOf(value) <= MAX_EXPONENT;
+	}
+
+	private static int exponentOf(int value) {
+		return value == 0 ? 0 : Integer.numberOfTrailingZeros(value);
+	}
+
+	private int getExponent(int row, int col) {
+		return (int) (board >>> (4 * (row * DIM + col))) & 0xF;
+	}
+
+	private boolean update(long next, int gained, Direction direction) {
+		if (next == board) {
+			return false;
+		}
+		board = next;
+		score += gained;
+		recordMove(direction);
+		return true;
+	}
+
+	private boolean moveTile(int row, int col, int toRow, int toCol) {
+		if (isValidLocation(row, col) && isValidLocation(toRow, toCol)) {
+			int value = getTileValue(row, col);
+			setTileValue(toRow, toCol, value);
+			setTileValue(row, col, 0);
+			return true;
+		}
+		return false;
+	}
+
+	private boolean mergeTile(int row, int col, int toRow, int toCol) {
+		if (isValidLocation(row, col) && isValidLocation(toRow, toCol)) {
+			int value = getTileValue(toRow, toCol) * 2;
+			if (setTileValue(toRow, toCol, value)) {
+				setTileValue(row, col, 0);
+				score += value;
+				return true;
+			}
+		}
+		return false;
+	}
+}
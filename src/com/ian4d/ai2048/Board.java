@@ -1,13 +1,15 @@
 package com.ian4d.ai2048;
 
-import java.util.ArrayList;
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.List;
 
-public class Board {
+public class Board implements IBoardView {
 
 	public static final int DEFAULT_DIM = 4;
 	public static final int MAX_POWER = 11;
 	private static final int BASE = 2;
+	private static final Direction[] DIRECTIONS = Direction.values();
 	
 	/**
 	 * Creates a new board
@@ -16,24 +18,48 @@ public class Board {
 	 * @return
 	 */
 	public static Board createBoard(int dim, int maxPower) {
+		return createBoard(dim, maxPower, new SplittableRandomSource());
+	}
+	
+	/**
+	 * Creates a new board
+	 * @param dim The size of each side of the board
+	 * @param maxPower The maximum power of 2 which the user is trying to reach. 
+	 * @param random The source used to place new tiles
+	 * @return
+	 */
+	public static Board createBoard(int dim, int maxPower, IRandomSource random) {
 		Board board = new Board();
 		board.dim = dim;
 		board.maxPower = maxPower;
+		board.random = random;
 		board.init();
 		return board;
 	}
 	
 	private int[][] tiles;
+	private int[][] storage;
 	private int dim = DEFAULT_DIM;
 	private int maxPower = MAX_POWER;
 	private boolean gameOver = false;
-	private boolean canMoveLeft = false;
-	private boolean canMoveRight = false;
-	private boolean canMoveUp = false;
-	private boolean canMoveDown = false;
+	private int score = 0;
+	private int maxTile = 0;
+	private int moveCount = 0;
+	private IRandomSource random;
+	private Direction lastMove = null;
+	private int lastSpawnIndex = -1;
+	
+	// Number of adjacent tile pairs that allow a move in each direction
+	private int leftPairs = 0;
+	private int rightPairs = 0;
+	private int upPairs = 0;
+	private int downPairs = 0;
+	
+	// Indices (row * dim + col) of empty tiles
+	private final EmptyTileSet emptyTiles = new EmptyTileSet();
 	
-	// String representaions of empty tiles
-	private List<String> emptyTiles = new ArrayList<String>();
+	// "row,col" view of the empty tiles, built on demand
+	private final List<String> emptyTileView = new EmptyTileView();
 	
 	/**
 	 * Initializes the state of the game
@@ -41,25 +67,28 @@ public class Board {
 	public void init() {
 		gameOver = false;
 		empty();
-		
-		// Fill a random tile and update legal move set
-		hasLegalMoves();
 	}
 	
 	/**
 	 * Empties the board
 	 */
 	public void empty() {
-		emptyTiles.clear();
-		tiles = new int[dim][];
-		// populate the board with empties
-		for (int i = 0; i < dim; i++) {
-			tiles[i] = new int[dim];
-			for (int j = 0; j < dim; j++) {
-				tiles[i][j] = 0;
-				emptyTiles.add(i + "," + j);
+		emptyTiles.fill(dim * dim);
+		score = 0;
+		maxTile = 0;
+		moveCount = 0;
+		lastMove = null;
+		lastSpawnIndex = -1;
+		// Reuse the board's own rows, rather than any adopted by setTiles
+		if (storage == null) {
+			storage = new int[dim][dim];
+		} else {
+			for (int i = 0; i < dim; i++) {
+				Arrays.fill(storage[i], 0);
 			}
 		}
+		tiles = storage;
+		countAllPairs();
 	}
 	
 	/**
@@ -69,7 +98,7 @@ public class Board {
 	public boolean moveLeft() {
 		
 		// Block invalid moves
-		if (!canMoveLeft)
+		if (!canMoveLeft())
 			return false;
 		
 		boolean result = false;
@@ -97,6 +126,8 @@ public class Board {
 				}
 			}
 		}
+		if (result)
+			recordMove(Direction.LEFT);
 		return result;
 	}
 	
@@ -107,7 +138,7 @@ public class Board {
 	public boolean moveRight() {
 		
 		// Block invalid moves
-		if (!canMoveRight)
+		if (!canMoveRight())
 			return false;
 		
 		boolean result = false;
@@ -135,6 +166,8 @@ public class Board {
 				}
 			}
 		}
+		if (result)
+			recordMove(Direction.RIGHT);
 		return result;
 	}
 	
@@ -145,7 +178,7 @@ public class Board {
 	public boolean moveUp() {
 		
 		// Block invalid moves
-		if (!canMoveUp)
+		if (!canMoveUp())
 			return false;
 		
 		boolean result = false;
@@ -173,6 +206,8 @@ public class Board {
 				}
 			}
 		}
+		if (result)
+			recordMove(Direction.UP);
 		return result;
 	}
 	
@@ -183,7 +218,7 @@ public class Board {
 	public boolean moveDown() {
 		
 		// Block invalid moves
-		if (!canMoveDown)
+		if (!canMoveDown())
 			return false;
 		
 		boolean result = false;
@@ -211,77 +246,204 @@ public class Board {
 				}
 			}
 		}
+		if (result)
+			recordMove(Direction.DOWN);
 		return result;
 	}
 	
 	/**
 	 * Populates a random tile with a 2 or a 4
+	 * @return false if there was no empty tile to fill
 	 */
 	public boolean fillRandomTile(int value) {
-		String tileSet = emptyTiles.get((int)Math.floor(Math.random()*emptyTiles.size()));
-		if (!tileSet.equals(null) && tileSet.length() > 0) {
-			String[] tileBreak = tileSet.split(",");
-			int row = Integer.valueOf(tileBreak[0]);
-			int col = Integer.valueOf(tileBreak[1]);
-			removeEmptyTile(row, col);
-			setTileValue(row, col, value);
-			return true;
+		lastSpawnIndex = -1;
+		if (emptyTiles.size() == 0)
+			return false;
+		
+		int index = emptyTiles.get(random.nextInt(emptyTiles.size()));
+		int row = index / dim;
+		int col = index % dim;
+		removeEmptyTile(row, col);
+		setTileValue(row, col, value);
+		lastSpawnIndex = index;
+		return true;
+	}
+	
+	/**
+	 * Works out the result of every move without changing the board
+	 * @param afterstates A buffer to fill, one entry per Direction in 
+	 * declaration order. Nothing is allocated when it is reused.
+	 * @return afterstates, or a new buffer if it was null or too short
+	 */
+	public Afterstate[] previewMoves(Afterstate[] afterstates) {
+		if (afterstates == null || afterstates.length < DIRECTIONS.length) {
+			afterstates = new Afterstate[DIRECTIONS.length];
 		}
-		return false;
+		for (Direction direction : DIRECTIONS) {
+			Afterstate afterstate = afterstates[direction.ordinal()];
+			if (afterstate == null) {
+				afterstate = new Afterstate();
+				afterstates[direction.ordinal()] = afterstate;
+			}
+			previewMove(direction, afterstate);
+		}
+		return afterstates;
 	}
 	
 	/**
-	 * Checks for any remaining legal moves on the board
-	 * @return
+	 * Slides a copy of the tiles the same way the move methods slide the board
 	 */
-	public boolean hasLegalMoves() {
+	private void previewMove(Direction direction, Afterstate afterstate) {
+		int[] cells = afterstate.reset(direction, dim * dim);
+		for (int i = 0; i < dim; i++) {
+			System.arraycopy(tiles[i], 0, cells, i * dim, dim);
+		}
 		
-		canMoveRight = false;
-		canMoveLeft = false;
-		canMoveUp = false;
-		canMoveDown = false;
-
-		// Scan left to right
-		int i, j;
-		for (i = 0; i < dim; i++) {
-			for (j = 1; j < dim-1; j++) {
-				int tile = getTileValue(i, j);
-				int left = getTileValue(i, j - 1);
-				int right = getTileValue(i, j + 1);
-				if ((left != 0 && tile == 0) || (tile != 0 && right == 0)) {
-					canMoveRight = true;
-				}
-				if ((right != 0 && tile == 0) || (tile != 0 && left == 0)) {
-					canMoveLeft = true;
+		int gained = 0;
+		boolean changed = false;
+		for (int i = 0; i < dim; i++) {
+			int start, stride;
+			switch (direction) {
+			case LEFT:
+				start = i * dim;
+				stride = 1;
+				break;
+			case RIGHT:
+				start = i * dim + dim - 1;
+				stride = -1;
+				break;
+			case UP:
+				start = i;
+				stride = dim;
+				break;
+			default:
+				start = (dim - 1) * dim + i;
+				stride = -dim;
+				break;
+			}
+			
+			// Same walk as moveLeft, along a line that starts at the edge 
+			// being moved towards
+			for (int j = 1; j < dim; j++) {
+				if (cells[start + j * stride] == 0)
+					continue;
+				int k = j;
+				while (k > 0 && cells[start + (k - 1) * stride] == 0) {
+					cells[start + (k - 1) * stride] = cells[start + k * stride];
+					cells[start + k * stride] = 0;
+					k--;
+					changed = true;
 				}
-				
-				if (tile != 0 && (left == tile || right == tile)) {
-					canMoveLeft = true;
-					canMoveRight = true;
+				if (k > 0 && cells[start + (k - 1) * stride] == cells[start + k * stride]) {
+					cells[start + (k - 1) * stride] *= BASE;
+					gained += cells[start + (k - 1) * stride];
+					cells[start + k * stride] = 0;
+					changed = true;
 				}
 			}
 		}
 		
-		for (j = 0; j < dim; j++) {
-			for (i = 1; i < dim - 1; i++) {
-				int tile = getTileValue(i, j);
-				int up = getTileValue(i - 1, j);
-				int down = getTileValue(i + 1, j);
-				if ((up != 0 && tile == 0) || (tile != 0 && down == 0)) {
-					canMoveDown = true;
-				}
-				if ((down != 0 && tile == 0) || (tile != 0 && up == 0)) {
-					canMoveUp = true;
-				}
-				if (tile != 0 && (up == tile || down == tile)) {
-					canMoveUp = true;
-					canMoveDown = true;
-				}
-				
+		int empty = 0;
+		for (int cell : cells) {
+			if (cell == 0)
+				empty++;
+		}
+		afterstate.set(changed, gained, empty);
+	}
+	
+	/**
+	 * Checks for any remaining legal moves on the board. The legal move set 
+	 * is maintained as tiles change, so this doesn't scan the board.
+	 * @return
+	 */
+	public boolean hasLegalMoves() {
+		return leftPairs > 0 || rightPairs > 0 || upPairs > 0 || downPairs > 0;
+	}
+	
+	/**
+	 * Writes a tile and updates the legal move counts of its neighbouring pairs
+	 */
+	private void writeTile(int row, int col, int value) {
+		if (tiles[row][col] == value)
+			return;
+		countPairs(row, col, -1);
+		tiles[row][col] = value;
+		countPairs(row, col, 1);
+	}
+	
+	/**
+	 * @return the highest tile, found by scanning every tile
+	 */
+	private int findMaxTile() {
+		int max = 0;
+		for (int i = 0; i < dim; i++) {
+			for (int j = 0; j < dim; j++) {
+				max = Math.max(max, tiles[i][j]);
+			}
+		}
+		return max;
+	}
+	
+	/**
+	 * Adds sign to the legal move counts of every pair that includes row, col
+	 */
+	private void countPairs(int row, int col, int sign) {
+		if (col > 0)
+			countHorizontalPair(row, col - 1, sign);
+		if (col < dim - 1)
+			countHorizontalPair(row, col, sign);
+		if (row > 0)
+			countVerticalPair(row - 1, col, sign);
+		if (row < dim - 1)
+			countVerticalPair(row, col, sign);
+	}
+	
+	/**
+	 * Counts the moves enabled by the pair row, col and row, col + 1
+	 */
+	private void countHorizontalPair(int row, int col, int sign) {
+		int left = tiles[row][col];
+		int right = tiles[row][col + 1];
+		if (left != 0 && left == right) {
+			leftPairs += sign;
+			rightPairs += sign;
+		} else if (left == 0 && right != 0) {
+			leftPairs += sign;
+		} else if (left != 0 && right == 0) {
+			rightPairs += sign;
+		}
+	}
+	
+	/**
+	 * Counts the moves enabled by the pair row, col and row + 1, col
+	 */
+	private void countVerticalPair(int row, int col, int sign) {
+		int up = tiles[row][col];
+		int down = tiles[row + 1][col];
+		if (up != 0 && up == down) {
+			upPairs += sign;
+			downPairs += sign;
+		} else if (up == 0 && down != 0) {
+			upPairs += sign;
+		} else if (up != 0 && down == 0) {
+			downPairs += sign;
+		}
+	}
+	
+	/**
+	 * Recounts the legal move set from scratch
+	 */
+	private void countAllPairs() {
+		leftPairs = 0;
+		rightPairs = 0;
+		upPairs = 0;
+		downPairs = 0;
+		for (int i = 0; i < dim; i++) {
+			for (int j = 0; j < dim - 1; j++) {
+				countHorizontalPair(i, j, 1);
+				countVerticalPair(j, i, 1);
 			}
 		}
-		
-		return canMoveRight || canMoveLeft || canMoveUp || canMoveDown;
 	}
 	
 	/**
@@ -301,7 +463,7 @@ public class Board {
 	 * @return true if successful
 	 */
 	public boolean addEmptyTile(int row, int col) {
-		return emptyTiles.add(row + "," + col);
+		return isValidLocation(row, col) && emptyTiles.add(row * dim + col);
 	}
 	
 	/**
@@ -311,7 +473,7 @@ public class Board {
 	 * @return true if successful
 	 */
 	public boolean removeEmptyTile(int row, int col) {
-		return emptyTiles.remove(row + "," + col);
+		return isValidLocation(row, col) && emptyTiles.remove(row * dim + col);
 	}
 	
 	/**
@@ -323,7 +485,20 @@ public class Board {
 	 */
 	public boolean setTileValue(int row, int col, int value) {
 		if (isValidLocation(row, col)) {
-			tiles[row][col] = value;
+			int old = tiles[row][col];
+			writeTile(row, col, value);
+			if (value >= maxTile) {
+				maxTile = value;
+			} else if (old == maxTile) {
+				// The highest tile was overwritten, which only happens when
+				// a board is set up by hand
+				maxTile = findMaxTile();
+			}
+			if (value == 0) {
+				addEmptyTile(row, col);
+			} else {
+				removeEmptyTile(row, col);
+			}
 			return true;
 		} else {
 			return false;
@@ -362,8 +537,8 @@ public class Board {
 	 */
 	public boolean moveTileUp(int row, int col) {
 		if (isValidLocation(row, col) && isValidLocation(row-1, col)) {
-			tiles[row-1][col] = tiles[row][col];
-			tiles[row][col] = 0;
+			writeTile(row-1, col, tiles[row][col]);
+			writeTile(row, col, 0);
 			addEmptyTile(row, col);
 			removeEmptyTile(row - 1, col);
 			return true;
@@ -379,8 +554,8 @@ public class Board {
 	 */
 	public boolean moveTileDown(int row, int col) {
 		if (isValidLocation(row, col) && isValidLocation(row+1, col)) {
-			tiles[row+1][col] = tiles[row][col];
-			tiles[row][col] = 0;
+			writeTile(row+1, col, tiles[row][col]);
+			writeTile(row, col, 0);
 			addEmptyTile(row, col);
 			removeEmptyTile(row + 1, col);
 			return true;
@@ -396,8 +571,8 @@ public class Board {
 	 */
 	public boolean moveTileLeft(int row, int col) {
 		if (isValidLocation(row, col) && isValidLocation(row, col-1)) {
-			tiles[row][col-1] = tiles[row][col];
-			tiles[row][col] = 0;
+			writeTile(row, col-1, tiles[row][col]);
+			writeTile(row, col, 0);
 			addEmptyTile(row, col);
 			removeEmptyTile(row, (col-1));
 			return true;
@@ -413,8 +588,8 @@ public class Board {
 	 */
 	public boolean moveTileRight(int row, int col) {
 		if (isValidLocation(row, col) && isValidLocation(row, col+1)) {
-			tiles[row][col+1] = tiles[row][col];
-			tiles[row][col] = 0;
+			writeTile(row, col+1, tiles[row][col]);
+			writeTile(row, col, 0);
 			addEmptyTile(row, col);
 			removeEmptyTile(row, col + 1);
 			return true;
@@ -442,8 +617,10 @@ public class Board {
 	 */
 	public boolean mergeLeft(int row, int col) {
 		try {
-			tiles[row][col-1] *= BASE;
-			tiles[row][col] = 0;
+			writeTile(row, col-1, tiles[row][col-1] * BASE);
+			score += tiles[row][col-1];
+			maxTile = Math.max(maxTile, tiles[row][col-1]);
+			writeTile(row, col, 0);
 			addEmptyTile(row, col);
 			removeEmptyTile(row, col-1);
 			return true;
@@ -461,8 +638,10 @@ public class Board {
 	 */
 	public boolean mergeRight(int row, int col) {
 		try {
-			tiles[row][col+1] *= BASE;
-			tiles[row][col] = 0;
+			writeTile(row, col+1, tiles[row][col+1] * BASE);
+			score += tiles[row][col+1];
+			maxTile = Math.max(maxTile, tiles[row][col+1]);
+			writeTile(row, col, 0);
 			addEmptyTile(row, col);
 			removeEmptyTile(row, col+1);
 			return true;
@@ -480,8 +659,10 @@ public class Board {
 	 */
 	public boolean mergeUp(int row, int col) {
 		try {
-			tiles[row-1][col] *= BASE;
-			tiles[row][col] = 0;
+			writeTile(row-1, col, tiles[row-1][col] * BASE);
+			score += tiles[row-1][col];
+			maxTile = Math.max(maxTile, tiles[row-1][col]);
+			writeTile(row, col, 0);
 			addEmptyTile(row, col);
 			removeEmptyTile(row-1, col);
 			return true;
@@ -499,8 +680,10 @@ public class Board {
 	 */
 	public boolean mergeDown(int row, int col) {
 		try {
-			tiles[row+1][col] *= BASE;
-			tiles[row][col] = 0;
+			writeTile(row+1, col, tiles[row+1][col] * BASE);
+			score += tiles[row+1][col];
+			maxTile = Math.max(maxTile, tiles[row+1][col]);
+			writeTile(row, col, 0);
 			addEmptyTile(row, col);
 			removeEmptyTile(row+1, col);
 			return true;
@@ -511,35 +694,36 @@ public class Board {
 	}
 
 	/**
-	 * @return the canMoveLeft
+	 * @return true if moving left would change the board
 	 */
 	public boolean canMoveLeft() {
-		return canMoveLeft;
+		return leftPairs > 0;
 	}
 
 	/**
-	 * @return the canMoveRight
+	 * @return true if moving right would change the board
 	 */
 	public boolean canMoveRight() {
-		return canMoveRight;
+		return rightPairs > 0;
 	}
 
 	/**
-	 * @return the canMoveUp
+	 * @return true if moving up would change the board
 	 */
 	public boolean canMoveUp() {
-		return canMoveUp;
+		return upPairs > 0;
 	}
 
 	/**
-	 * @return the canMoveDown
+	 * @return true if moving down would change the board
 	 */
 	public boolean canMoveDown() {
-		return canMoveDown;
+		return downPairs > 0;
 	}
 
 	/**
-	 * @return the tiles
+	 * @return the tiles. Writing to the array directly bypasses the empty 
+	 * tile and legal move bookkeeping, use setTileValue or setTiles instead.
 	 */
 	public int[][] getTiles() {
 		return tiles;
@@ -550,6 +734,16 @@ public class Board {
 	 */
 	public void setTiles(int[][] tiles) {
 		this.tiles = tiles;
+		emptyTiles.reset(dim * dim);
+		for (int i = 0; i < dim; i++) {
+			for (int j = 0; j < dim; j++) {
+				if (tiles[i][j] == 0) {
+					emptyTiles.add(i * dim + j);
+				}
+			}
+		}
+		countAllPairs();
+		maxTile = findMaxTile();
 	}
 
 	/**
@@ -567,10 +761,138 @@ public class Board {
 	}
 
 	/**
-	 * @return the emptyTiles
+	 * @return the direction of the last move that changed the board, or null
+	 * if none has since the board was emptied or clearLastMove was called
+	 */
+	public Direction getLastMove() {
+		return lastMove;
+	}
+	
+	/**
+	 * Forgets the last move, so a following getLastMove shows whether the 
+	 * next move changed the board
+	 */
+	public void clearLastMove() {
+		lastMove = null;
+	}
+	
+	/**
+	 * @param lastMove the lastMove to set
+	 */
+	protected void setLastMove(Direction lastMove) {
+		this.lastMove = lastMove;
+	}
+	
+	/**
+	 * Records a move that changed the board
+	 * @param direction The direction of the move
+	 */
+	protected void recordMove(Direction direction) {
+		lastMove = direction;
+		moveCount++;
+	}
+	
+	/**
+	 * @return the number of moves that changed the board since it was emptied
+	 */
+	public int getMoveCount() {
+		return moveCount;
+	}
+	
+	/**
+	 * @param moveCount the moveCount to set
+	 */
+	protected void setMoveCount(int moveCount) {
+		this.moveCount = moveCount;
+	}
+	
+	/**
+	 * @return the tile index (row * dim + col) filled by the last call to
+	 * fillRandomTile, or -1 if it found no empty tile
+	 */
+	public int getLastSpawnIndex() {
+		return lastSpawnIndex;
+	}
+	
+	/**
+	 * @param lastSpawnIndex the lastSpawnIndex to set
+	 */
+	protected void setLastSpawnIndex(int lastSpawnIndex) {
+		this.lastSpawnIndex = lastSpawnIndex;
+	}
+	
+	/**
+	 * @return the source used to place new tiles
+	 */
+	public IRandomSource getRandom() {
+		return random;
+	}
+	
+	/**
+	 * @param random the source used to place new tiles
+	 */
+	public void setRandom(IRandomSource random) {
+		this.random = random;
+	}
+	
+	/**
+	 * @return the sum of every tile created by a merge since the board was emptied
+	 */
+	public int getScore() {
+		return score;
+	}
+	
+	/**
+	 * @return the highest tile on the board, kept up to date as tiles merge
+	 */
+	public int getMaxTile() {
+		return maxTile;
+	}
+	
+	/**
+	 * @return a read only "row,col" view of the empty tiles. Strings are only
+	 * built when elements are read, prefer getEmptyTileCount for counting.
 	 */
 	public List<String> getEmptyTiles() {
-		return emptyTiles;
+		return emptyTileView;
+	}
+	
+	/**
+	 * @return the number of empty tiles
+	 */
+	public int getEmptyTileCount() {
+		return emptyTiles.size();
+	}
+	
+	/**
+	 * Read only "row,col" view over the empty tile set
+	 */
+	private class EmptyTileView extends AbstractList<String> {
+		
+		@Override
+		public String get(int index) {
+			int tile = emptyTiles.get(index);
+			return (tile / dim) + "," + (tile % dim);
+		}
+		
+		@Override
+		public int size() {
+			return emptyTiles.size();
+		}
+		
+		@Override
+		public boolean contains(Object o) {
+			if (!(o instanceof String))
+				return false;
+			String[] tileBreak = ((String) o).split(",");
+			try {
+				int row = Integer.parseInt(tileBreak[0]);
+				int col = Integer.parseInt(tileBreak[1]);
+				return isValidLocation(row, col) && emptyTiles.contains(row * dim + col);
+			} catch (RuntimeException ex) {
+				return false;
+			}
+		}
 	}
 	
 	@Override
@@ -0,0 +1,59 @@
+package com.ian4d.ai2048;
+
+/**
+ * The four directions tiles can be moved in
+ */
+public enum Direction {
+	LEFT,
+	RIGHT,
+	UP,
+	DOWN;
+
+	/**
+	 * Moves the tiles on board in this direction
+	 * @param board The board to move
+	 * @return true if the board changed
+	 */
+	public boolean apply(Board board) {
+		switch (this) {
+		case LEFT:
+			return board.moveLeft();
+		case RIGHT:
+			return board.moveRight();
+		case UP:
+			return board.moveUp();
+		default:
+			return board.moveDown();
+		}
+	}
+
+	/**
+	 * Moves the tiles of a packed 4x4 board in this direction
+	 * @param board The packed board
+	 * @return The packed board after the move
+	 */
+	public long apply(long board) {
+		switch (this) {
+		case LEFT:
+			return BitBoard.slideLeft(board);
+		case RIGHT:
+			return BitBoard.slideRight(board);
+		case UP:
+			return BitBoard.slideUp(board);
+		default:
+			return BitBoard.slideDown(board);
+		}
+	}
+
+	/**
+	 * Scores a move on a packed 4x4 board without making it
+	 * @param board The packed board
+	 * @return The sum of every tile the move would create by merging
+	 */
+	public int score(long board) {
+		if (this == LEFT || this == RIGHT) {
+			return BitBoard.scoreRows(board);
+		}
+		return BitBoard.scoreRows(BitBoard.transpose(board));
+	}
+}
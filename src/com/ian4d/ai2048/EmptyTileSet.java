@@ -0,0 +1,98 @@
+package com.ian4d.ai2048;
+
+/**
+ * A set of empty tile indices (row * dim + col) with O(1) add, remove and
+ * random pick.
+ *
+ * Members are kept densely packed in a slot array, and a position map records
+ * the slot of every member so removal can swap the last member into its place.
+ * Nothing is allocated after construction unless the board size changes.
+ */
+class EmptyTileSet {
+
+	private int[] slots = new int[0];
+	private int[] positions = new int[0];
+	private int size = 0;
+
+	/**
+	 * Removes all members and makes room for capacity indices
+	 * @param capacity The number of tiles on the board
+	 */
+	void reset(int capacity) {
+		if (slots.length != capacity) {
+			slots = new int[capacity];
+			positions = new int[capacity];
+		}
+		size = 0;
+		for (int i = 0; i < capacity; i++) {
+			positions[i] = -1;
+		}
+	}
+
+	/**
+	 * Fills the set with every index from 0 to capacity - 1
+	 * @param capacity The number of tiles on the board
+	 */
+	void fill(int capacity) {
+		reset(capacity);
+		for (int i = 0; i < capacity; i++) {
+			slots[i] = i;
+			positions[i] = i;
+		}
+		size = capacity;
+	}
+
+	/**
+	 * @param index The tile index to add
+	 * @return true if the index wasn't already a member
+	 */
+	boolean add(int index) {
+		if (positions[index] >= 0) {
+			return false;
+		}
+		slots[size] = index;
+		positions[index] = size;
+		size++;
+		return true;
+	}
+
+	/**
+	 * @param index The tile index to remove
+	 * @return true if the index was a member
+	 */
+	boolean remove(int index) {
+		int slot = positions[index];
+		if (slot < 0) {
+			return false;
+		}
+		size--;
+		int last = slots[size];
+		slots[slot] = last;
+		positions[last] = slot;
+		positions[index] = -1;
+		return true;
+	}
+
+	/**
+	 * @param index The tile index to check
+	 * @return true if the index is a member
+	 */
+	boolean contains(int index) {
+		return index >= 0 && index < positions.length && positions[index] >= 0;
+	}
+
+	/**
+	 * @param slot A slot between 0 and size - 1
+	 * @return The tile index stored in that slot
+	 */
+	int get(int slot) {
+		return slots[slot];
+	}
+
+	/**
+	 * @return the number of members
+	 */
+	int size() {
+		return size;
+	}
+}
@@ -1,66 +1,176 @@
 package com.ian4d.ai2048;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import com.ian4d.ai2048.events.IGameListener;
+import com.ian4d.ai2048.players.IDecisionPlayer;
 import com.ian4d.ai2048.players.IPlayer;
+import com.ian4d.ai2048.players.LegacyPlayerAdapter;
 
 public class Game {
 
+	// Chance that a newly spawned tile is a 2 rather than a 4
+	public static final double TWO_PROBABILITY = .9;
+
 	public static Game newGame(int dimension, int maxScore, IPlayer player) {
+		return newGame(dimension, maxScore, player, new SplittableRandomSource());
+	}
+
+	/**
+	 * Creates a new game
+	 * @param dimension The size of each side of the board
+	 * @param maxScore The maximum power of 2 which the player is trying to reach
+	 * @param player The player making the moves. Players that don't decide
+	 * moves are wrapped in a LegacyPlayerAdapter.
+	 * @param random Draws the seed of every game played, so a seeded source 
+	 * makes the whole sequence of games reproducible
+	 * @return
+	 */
+	public static Game newGame(int dimension, int maxScore, IPlayer player, IRandomSource random) {
+		Game game = createGame(dimension, maxScore, random);
+		game.player = LegacyPlayerAdapter.adapt(player);
+		game.restart();
+		return game;
+	}
+
+	/**
+	 * Creates a game without a board or player. Restart it with a player
+	 * before playing it.
+	 * @param dimension The size of each side of the board
+	 * @param maxScore The maximum power of 2 which the player is trying to reach
+	 * @param random Draws the seed of every game played
+	 * @return
+	 */
+	static Game createGame(int dimension, int maxScore, IRandomSource random) {
 		Game game = new Game();
-		game.board = Board.createBoard(dimension, maxScore);
-		game.player = player;
 		game.boardDimension = dimension;
 		game.boardMaxScore = maxScore;
+		game.random = random;
 		return game;
 	}
 
+	/**
+	 * Creates the fastest board engine available for the given size. Games 
+	 * are played, and must be replayed, on the board this returns.
+	 * @param dimension The size of each side of the board
+	 * @param maxScore The maximum power of 2 which the player is trying to reach
+	 * @param random The source used to place new tiles
+	 * @return
+	 */
+	public static Board createBoard(int dimension, int maxScore, IRandomSource random) {
+		if (BitBoard.supports(dimension, maxScore)) {
+			return BitBoard.createBitBoard(maxScore, random);
+		}
+		if (LargeBoard.supports(dimension, maxScore)) {
+			return LargeBoard.createLargeBoard(dimension, maxScore, random);
+		}
+		return Board.createBoard(dimension, maxScore, random);
+	}
+
 	private Board board;
-	private IPlayer player;
+	private IDecisionPlayer player;
+	private IRandomSource random;
+	private SplittableRandomSource boardRandom;
+	private long seed;
+	private final List<IGameListener> listeners = new ArrayList<IGameListener>();
+	private int turns = 0;
 	private int winCount = 0;
 	private int loseCount = 0;
 	private int boardDimension;
 	private int boardMaxScore;
+	private long requestStart;
 	
 	/**
-	 * Returns true if the game is over
-	 * @return
+	 * Asks the player for a move and applies it
+	 * @return true if the game is over
 	 */
 	public boolean makeMove() {
-		player.makeMove(board);
-		if (!checkFailure()) {
+		requestStart = System.nanoTime();
+		return applyMove(player.decide(board));
+	}
+	
+	/**
+	 * Asks the player for a move without applying it, so a caller can keep
+	 * other games going while the player decides. The board must not be
+	 * changed until applyMove has been called with the result.
+	 * @return The move the player chose
+	 */
+	public CompletableFuture<Direction> requestMove() {
+		requestStart = System.nanoTime();
+		return player.decideAsync(board);
+	}
+	
+	/**
+	 * Applies a move chosen by the player. A move that doesn't change the 
+	 * board, or null, still uses up the turn.
+	 * @param move The move from the last requestMove
+	 * @return true if the game is over
+	 */
+	public boolean applyMove(Direction move) {
+		long elapsed = System.nanoTime() - requestStart;
+		board.clearLastMove();
+		if (move != null) {
+			move.apply(board);
+		}
+		turns++;
+		for (int i = 0; i < listeners.size(); i++) {
+			listeners.get(i).turnPlayed(turns, board.getLastMove(), elapsed, getScore());
+		}
+		if (checkFailure()) {
 			if (checkVictory()) {
-				System.out.println("GAME OVER: YOU WIN");
 				winCount++;
+				endGame(true);
 				return true;
 			} else {
-				System.out.println("GAME OVER: YOU LOSE");
 				loseCount++;
+				endGame(false);
 				return true;
 			}
 		}
 		return false;
 	}
 	
+	/**
+	 * Ends the current game early as a loss, for callers that stop games
+	 * before the board fills up. Only listeners are told, the win and loss 
+	 * counts are unchanged.
+	 */
+	public void abandon() {
+		endGame(false);
+	}
+	
+	private void endGame(boolean won) {
+		if (listeners.isEmpty()) {
+			return;
+		}
+		int maxTile = getMaxTile();
+		for (int i = 0; i < listeners.size(); i++) {
+			listeners.get(i).gameEnded(turns, getScore(), maxTile, won);
+		}
+	}
+	
 	/**
 	 * Starts the next turn by adding a new randomly filled tile to the board
 	 * @return
 	 */
 	public boolean startNextTurn() {
-		board.fillRandomTile(Math.random() < .9 ? 2 : 4);
+		int value = board.getRandom().nextDouble() < TWO_PROBABILITY ? 2 : 4;
+		if (board.fillRandomTile(value)) {
+			for (int i = 0; i < listeners.size(); i++) {
+				listeners.get(i).tileSpawned(board.getLastSpawnIndex(), value);
+			}
+		}
 		return true;
 	}
 	
 	/**
 	 * Determines whether the player has won the game
-	 * @return
+	 * @return true if a tile has reached 2^maxScore
 	 */
 	public boolean checkVictory() {
-		for (int i = 0; i < boardDimension; i++) {
-			for (int j = 0; j < boardDimension; j++) {
-				if (board.getTileValue(i, j) == Math.pow(2, boardMaxScore));
-					return true;
-			}
-		}
-		return false;
+		return board.getMaxTile() >= 1L << boardMaxScore;
 	}
 	
 	/**
@@ -68,14 +178,57 @@ public class Game {
 	 * @return
 	 */
 	public boolean checkFailure() {
-		return (board.getEmptyTiles().size() == 0 && !board.hasLegalMoves());
+		return (board.getEmptyTileCount() == 0 && !board.hasLegalMoves());
 	}
 	
 	/**
-	 * Restarts the game
+	 * Restarts the game with the next seed
 	 */
 	public void restart() {
-		board = Board.createBoard(boardDimension, boardMaxScore);
+		restart(random.nextLong());
+	}
+	
+	/**
+	 * Restarts the game from a seed. Replaying the same moves after restarting
+	 * from a game's seed reproduces that game exactly.
+	 * 
+	 * The board and its random source are reset in place, so the board 
+	 * returned by getBoard is the same object from game to game.
+	 * @param seed The seed for every tile placed during the game
+	 */
+	public void restart(long seed) {
+		this.seed = seed;
+		turns = 0;
+		if (board == null) {
+			boardRandom = new SplittableRandomSource(seed);
+			board = createBoard(boardDimension, boardMaxScore, boardRandom);
+		} else {
+			boardRandom.reseed(seed);
+			board.setRandom(boardRandom);
+			board.init();
+		}
+		for (int i = 0; i < listeners.size(); i++) {
+			listeners.get(i).gameStarted(seed, boardDimension, boardMaxScore);
+		}
+	}
+	
+	/**
+	 * Restarts the game with a new player
+	 * @param player The player for the next game
+	 */
+	public void restart(IPlayer player) {
+		this.player = LegacyPlayerAdapter.adapt(player);
+		restart();
+	}
+	
+	/**
+	 * Restarts the game from a seed with a new player
+	 * @param player The player for the next game
+	 * @param seed The seed for every tile placed during the game
+	 */
+	public void restart(IPlayer player, long seed) {
+		this.player = LegacyPlayerAdapter.adapt(player);
+		restart(seed);
 	}
 	
 	/**
@@ -85,6 +238,92 @@ public class Game {
 		System.out.println(board.toString());
 	}
 
+	/**
+	 * @return the board
+	 */
+	public Board getBoard() {
+		return board;
+	}
+	
+	/**
+	 * @return the player making the moves
+	 */
+	public IDecisionPlayer getPlayer() {
+		return player;
+	}
+	
+	/**
+	 * @param player The player for the moves from now on
+	 */
+	public void setPlayer(IDecisionPlayer player) {
+		this.player = player;
+	}
+	
+	/**
+	 * Reports the events of every game from the next restart on. Games don't
+	 * print anything themselves, so a game without listeners runs headless.
+	 * @param listener The listener to add
+	 */
+	public void addGameListener(IGameListener listener) {
+		listeners.add(listener);
+	}
+	
+	/**
+	 * @param listener The listener to remove
+	 */
+	public void removeGameListener(IGameListener listener) {
+		listeners.remove(listener);
+	}
+	
+	/**
+	 * Removes every listener
+	 */
+	public void clearGameListeners() {
+		listeners.clear();
+	}
+	
+	/**
+	 * @return the size of each side of the board
+	 */
+	public int getBoardDimension() {
+		return boardDimension;
+	}
+	
+	/**
+	 * @return the maximum power of 2 which the player is trying to reach
+	 */
+	public int getBoardMaxScore() {
+		return boardMaxScore;
+	}
+	
+	/**
+	 * @return the number of moves made in the current game
+	 */
+	public int getTurns() {
+		return turns;
+	}
+	
+	/**
+	 * @return the highest tile on the board
+	 */
+	public int getMaxTile() {
+		return board.getMaxTile();
+	}
+	
+	/**
+	 * @return the seed of the current game
+	 */
+	public long getSeed() {
+		return seed;
+	}
+	
+	/**
+	 * @return the score of the current game
+	 */
+	public int getScore() {
+		return board.getScore();
+	}
+
 	/**
 	 * @return the winCount
 	 */
@@ -0,0 +1,77 @@
+package com.ian4d.ai2048;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps games on each thread for reuse. A game restarts in place, so code
+ * that plays game after game on a pooled game allocates no new boards, and
+ * threads that play many batches of games, like Tournament workers, reuse
+ * the same few games for all of them.
+ *
+ * Each thread has its own pool, so acquiring and releasing games takes no
+ * locks. A game must be released on the thread that acquired it.
+ */
+public class GamePool {
+
+	// Games kept per thread, any more released are dropped
+	public static final int MAX_POOLED = 8;
+
+	private static final ThreadLocal<GamePool> POOLS = new ThreadLocal<GamePool>() {
+		@Override
+		protected GamePool initialValue() {
+			return new GamePool();
+		}
+	};
+
+	/**
+	 * @return the pool of the calling thread
+	 */
+	public static GamePool get() {
+		return POOLS.get();
+	}
+
+	private final List<Game> games = new ArrayList<Game>();
+
+	private GamePool() {
+	}
+
+	/**
+	 * Takes a game of the given size from the pool, or creates one if there
+	 * are none. Add any listeners, then restart the game with a player
+	 * before playing it.
+	 * @param dimension The size of each side of the board
+	 * @param maxScore The maximum power of 2 which the player is trying to reach
+	 * @return A game without listeners or a player
+	 */
+	public Game acquire(int dimension, int maxScore) {
+		for (int i = games.size() - 1; i >= 0; i--) {
+			Game game = games.get(i);
+			if (game.getBoardDimension() == dimension && game.getBoardMaxScore() == maxScore) {
+				games.remove(i);
+				return game;
+			}
+		}
+		return Game.createGame(dimension, maxScore, new SplittableRandomSource());
+	}
+
+	/**
+	 * Returns a game to the pool. Its listeners and player are dropped, and
+	 * the caller must not use it again.
+	 * @param game A game from acquire
+	 */
+	public void release(Game game) {
+		game.clearGameListeners();
+		game.setPlayer(null);
+		if (games.size() < MAX_POOLED) {
+			games.add(game);
+		}
+	}
+
+	/**
+	 * @return the number of games waiting to be reused
+	 */
+	public int size() {
+		return games.size();
+	}
+}
@@ -0,0 +1,77 @@
+package com.ian4d.ai2048;
+
+/**
+ * The read only parts of a board, which is all a decision player is given.
+ * The game applies the chosen move itself.
+ */
+public interface IBoardView {
+
+	/**
+	 * @return the size of each side of the board
+	 */
+	int getDim();
+
+	/**
+	 * @return the maximum power of 2 the player is trying to reach
+	 */
+	int getMaxPower();
+
+	/**
+	 * @param row The row of the tile
+	 * @param col The column of the tile
+	 * @return the value of the tile, 0 if it is empty
+	 */
+	int getTileValue(int row, int col);
+
+	/**
+	 * @param row The row of the tile
+	 * @param col The column of the tile
+	 * @return true if the tile is empty
+	 */
+	boolean isTileEmpty(int row, int col);
+
+	/**
+	 * @return the number of empty tiles
+	 */
+	int getEmptyTileCount();
+
+	/**
+	 * @return the sum of every tile created by a merge so far
+	 */
+	int getScore();
+
+	/**
+	 * @return the highest tile on the board
+	 */
+	int getMaxTile();
+
+	/**
+	 * @return the number of moves that changed the board so far
+	 */
+	int getMoveCount();
+
+	/**
+	 * @return true if any move would change the board
+	 */
+	boolean hasLegalMoves();
+
+	/**
+	 * @return true if moving left would change the board
+	 */
+	boolean canMoveLeft();
+
+	/**
+	 * @return true if moving right would change the board
+	 */
+	boolean canMoveRight();
+
+	/**
+	 * @return true if moving up would change the board
+	 */
+	boolean canMoveUp();
+
+	/**
+	 * @return true if moving down would change the board
+	 */
+	boolean canMoveDown();
+}
@@ -0,0 +1,31 @@
+package com.ian4d.ai2048;
+
+/**
+ * The source of randomness used to spawn tiles.
+ *
+ * Sources are not shared between threads. Give every game or worker its own
+ * source, derived with split, so parallel runs never contend on one generator.
+ */
+public interface IRandomSource {
+
+	/**
+	 * @param bound The exclusive upper bound
+	 * @return a value between 0 and bound - 1
+	 */
+	int nextInt(int bound);
+
+	/**
+	 * @return a value between 0 and 1
+	 */
+	double nextDouble();
+
+	/**
+	 * @return a value suitable for seeding another source
+	 */
+	long nextLong();
+
+	/**
+	 * @return an independent source derived from this one
+	 */
+	IRandomSource split();
+}
@@ -0,0 +1,628 @@
+package com.ian4d.ai2048;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A board of any size stored as one byte per tile.
+ *
+ * Each tile holds its exponent (0 for an empty tile, n for a tile with the
+ * value 2^n), row by row, so tile (row, col) is cells[row * dim + col].
+ *
+ * A move compacts and merges each row or column in a single pass, writing
+ * the result back into the same line as it reads it. Horizontal moves read
+ * rows eight tiles at a time to skip runs of empty tiles, which is where most
+ * of the time goes on large, sparse boards.
+ *
+ * Moves follow the standard 2048 rule that a tile can only take part in one
+ * merge per move, the same as BitBoard.
+ */
+public class LargeBoard extends Board {
+
+	public static final int MIN_DIM = 2;
+	public static final int MAX_DIM = 1 << 12;
+	public static final int MAX_EXPONENT = 30;
+
+	private static final VarHandle WORDS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+	private static final long LOW_BITS = 0x7F7F7F7F7F7F7F7FL;
+	private static final Direction[] DIRECTIONS = Direction.values();
+
+	/**
+	 * Creates a new board
+	 * @param dim The size of each side of the board
+	 * @param maxPower The maximum power of 2 which the user is trying to reach.
+	 * @return
+	 */
+	public static LargeBoard createLargeBoard(int dim, int maxPower) {
+		return createLargeBoard(dim, maxPower, new SplittableRandomSource());
+	}
+
+	/**
+	 * Creates a new board
+	 * @param dim The size of each side of the board
+	 * @param maxPower The maximum power of 2 which the user is trying to reach.
+	 * @param random The source used to place new tiles
+	 * @return
+	 */
+	public static LargeBoard createLargeBoard(int dim, int maxPower, IRandomSource random) {
+		if (!supports(dim, maxPower)) {
+			throw new IllegalArgumentException("Unsupported board: " + dim + "x" + dim + " up to 2^" + maxPower);
+		}
+		LargeBoard board = new LargeBoard();
+		board.dim = dim;
+		board.maxPower = maxPower;
+		board.cells = new byte[dim * dim];
+		board.preview = new byte[dim * dim];
+		board.setRandom(random);
+		board.init();
+		return board;
+	}
+
+	/**
+	 * Checks whether a board of the given size fits in a LargeBoard
+	 * @param dim The size of each side of the board
+	 * @param maxPower The maximum power of 2 which the user is trying to reach.
+	 * @return true if the board fits
+	 */
+	public static boolean supports(int dim, int maxPower) {
+		return dim >= MIN_DIM && dim <= MAX_DIM && maxPower <= MAX_EXPONENT;
+	}
+
+	private byte[] cells;
+	private byte[] preview;
+	private int dim;
+	private int maxPower;
+	private int score = 0;
+	private int emptyCount = 0;
+	private int maxExponent = 0;
+
+	// Results of the last call to slide
+	private boolean slideChanged;
+	private int slideMerges;
+	private int slideMaxExponent;
+
+	@Override
+	public void empty() {
+		Arrays.fill(cells, (byte) 0);
+		emptyCount = cells.length;
+		score = 0;
+		maxExponent = 0;
+		setLastMove(null);
+		setLastSpawnIndex(-1);
+		setMoveCount(0);
+	}
+
+	@Override
+	public boolean moveLeft() {
+		return update(Direction.LEFT);
+	}
+
+	@Override
+	public boolean moveRight() {
+		return update(Direction.RIGHT);
+	}
+
+	@Override
+	public boolean moveUp() {
+		return update(Direction.UP);
+	}
+
+	@Override
+	public boolean moveDown() {
+		return update(Direction.DOWN);
+	}
+
+	/**
+	 * Populates a random empty tile with value
+	 * @return false if there was no empty tile to fill
+	 */
+	@Override
+	public boolean fillRandomTile(int value) {
+		setLastSpawnIndex(-1);
+		if (emptyCount == 0 || !isTileValue(value)) {
+			return false;
+		}
+		int index = emptyTileIndex(getRandom().nextInt(emptyCount));
+		cells[index] = (byte) exponentOf(value);
+		maxExponent = Math.max(maxExponent, cells[index]);
+		emptyCount--;
+		setLastSpawnIndex(index);
+		return true;
+	}
+
+	@Override
+	public Afterstate[] previewMoves(Afterstate[] afterstates) {
+		if (afterstates == null || afterstates.length < DIRECTIONS.length) {
+			afterstates = new Afterstate[DIRECTIONS.length];
+		}
+		for (Direction direction : DIRECTIONS) {
+			Afterstate afterstate = afterstates[direction.ordinal()];
+			if (afterstate == null) {
+				afterstate = new Afterstate();
+				afterstates[direction.ordinal()] = afterstate;
+			}
+			int[] values = afterstate.reset(direction, cells.length);
+			System.arraycopy(cells, 0, preview, 0, cells.length);
+			int gained = slide(preview, direction);
+			for (int i = 0; i < preview.length; i++) {
+				values[i] = preview[i] == 0 ? 0 : 1 << preview[i];
+			}
+			afterstate.set(slideChanged, gained, emptyCount + slideMerges);
+		}
+		return afterstates;
+	}
+
+	/**
+	 * A board with an empty tile and at least one filled tile always has a
+	 * move, so only full boards are scanned, for a pair of equal neighbours
+	 */
+	@Override
+	public boolean hasLegalMoves() {
+		if (emptyCount > 0) {
+			return emptyCount < cells.length;
+		}
+		for (int i = 0; i < dim; i++) {
+			int row = i * dim;
+			for (int j = 0; j < dim; j++) {
+				int cell = row + j;
+				if ((j < dim - 1 && cells[cell] == cells[cell + 1])
+						|| (i < dim - 1 && cells[cell] == cells[cell + dim])) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public boolean isTileEmpty(int row, int col) {
+		return cells[row * dim + col] == 0;
+	}
+
+	/**
+	 * Empty tiles are derived from the cells, so there is no separate set to
+	 * maintain
+	 * @return true if the tile at row, col is empty
+	 */
+	@Override
+	public boolean addEmptyTile(int row, int col) {
+		return isValidLocation(row, col) && isTileEmpty(row, col);
+	}
+
+	/**
+	 * Empty tiles are derived from the cells, so there is no separate set to
+	 * maintain
+	 * @return true if the tile at row, col is filled
+	 */
+	@Override
+	public boolean removeEmptyTile(int row, int col) {
+		return isValidLocation(row, col) && !isTileEmpty(row, col);
+	}
+
+	/**
+	 * Sets the tile at row, col to value
+	 * @return false if the location is invalid or value isn't 0 or a power of
+	 * 2 up to 2^MAX_EXPONENT
+	 */
+	@Override
+	public boolean setTileValue(int row, int col, int value) {
+		if (!isValidLocation(row, col) || !(value == 0 || isTileValue(value))) {
+			return false;
+		}
+		int cell = row * dim + col;
+		int old = cells[cell];
+		if (old == 0) {
+			emptyCount--;
+		}
+		cells[cell] = (byte) exponentOf(value);
+		if (cells[cell] == 0) {
+			emptyCount++;
+		}
+		if (cells[cell] >= maxExponent) {
+			maxExponent = cells[cell];
+		} else if (old == maxExponent) {
+			// The highest tile was overwritten, which only happens when a
+			// board is set up by hand
+			maxExponent = 0;
+			for (byte exponent : cells) {
+				maxExponent = Math.max(maxExponent, exponent);
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public int getTileValue(int row, int col) {
+		if (!isValidLocation(row, col)) {
+			return -1;
+		}
+		int exponent = cells[row * dim + col];
+		return exponent == 0 ? 0 : 1 << exponent;
+	}
+
+	@Override
+	public boolean isValidLocation(int row, int col) {
+		return (row >= 0 && row < dim && col >= 0 && col < dim);
+	}
+
+	@Override
+	public boolean moveTileUp(int row, int col) {
+		return moveTile(row, col, row - 1, col);
+	}
+
+	@Override
+	public boolean moveTileDown(int row, int col) {
+		return moveTile(row, col, row + 1, col);
+	}
+
+	@Override
+	public boolean moveTileLeft(int row, int col) {
+		return moveTile(row, col, row, col - 1);
+	}
+
+	@Override
+	public boolean moveTileRight(int row, int col) {
+		return moveTile(row, col, row, col + 1);
+	}
+
+	@Override
+	public boolean canTilesMerge(int row1, int col1, int row2, int col2) {
+		return isValidLocation(row1, col1) && isValidLocation(row2, col2)
+				&& cells[row1 * dim + col1] == cells[row2 * dim + col2];
+	}
+
+	@Override
+	public boolean mergeLeft(int row, int col) {
+		return mergeTile(row, col, row, col - 1);
+	}
+
+	@Override
+	public boolean mergeRight(int row, int col) {
+		return mergeTile(row, col, row, col + 1);
+	}
+
+	@Override
+	public boolean mergeUp(int row, int col) {
+		return mergeTile(row, col, row - 1, col);
+	}
+
+	@Override
+	public boolean mergeDown(int row, int col) {
+		return mergeTile(row, col, row + 1, col);
+	}
+
+	@Override
+	public boolean canMoveLeft() {
+		return canMove(0, dim, 1);
+	}
+
+	@Override
+	public boolean canMoveRight() {
+		return canMove(dim - 1, dim, -1);
+	}
+
+	@Override
+	public boolean canMoveUp() {
+		return canMove(0, 1, dim);
+	}
+
+	@Override
+	public boolean canMoveDown() {
+		return canMove((dim - 1) * dim, 1, -dim);
+	}
+
+	/**
+	 * @return a copy of the tiles, changes to it are not reflected on the board
+	 */
+	@Override
+	public int[][] getTiles() {
+		int[][] tiles = new int[dim][dim];
+		for (int i = 0; i < dim; i++) {
+			for (int j = 0; j < dim; j++) {
+				tiles[i][j] = getTileValue(i, j);
+			}
+		}
+		return tiles;
+	}
+
+	/**
+	 * @param tiles the tiles to copy onto the board
+	 */
+	@Override
+	public void setTiles(int[][] tiles) {
+		empty();
+		for (int i = 0; i < dim; i++) {
+			for (int j = 0; j < dim; j++) {
+				setTileValue(i, j, tiles[i][j]);
+			}
+		}
+	}
+
+	@Override
+	public int getDim() {
+		return dim;
+	}
+
+	@Override
+	public int getMaxPower() {
+		return maxPower;
+	}
+
+	/**
+	 * @return a snapshot of the empty tiles as "row,col" strings
+	 */
+	@Override
+	public List<String> getEmptyTiles() {
+		List<String> emptyTiles = new ArrayList<String>();
+		for (int i = 0; i < cells.length; i++) {
+			if (cells[i] == 0) {
+				emptyTiles.add(i / dim + "," + i % dim);
+			}
+		}
+		return emptyTiles;
+	}
+
+	@Override
+	public int getScore() {
+		return score;
+	}
+
+	@Override
+	public int getMaxTile() {
+		return maxExponent == 0 ? 0 : 1 << maxExponent;
+	}
+
+	@Override
+	public int getEmptyTileCount() {
+		return emptyCount;
+	}
+
+	/**
+	 * @return the exponent of every tile, row by row. Writing to the array
+	 * directly bypasses the empty tile count, use setCells instead.
+	 */
+	public byte[] getCells() {
+		return cells;
+	}
+
+	/**
+	 * Copies tiles onto the board. Like setTileValue it leaves the score
+	 * alone, since the score can't be worked out from the tiles.
+	 * @param exponents the exponent of every tile, row by row, to copy onto
+	 * the board
+	 */
+	public void setCells(byte[] exponents) {
+		if (exponents.length != cells.length) {
+			throw new IllegalArgumentException("Expected " + cells.length + " cells, got " + exponents.length);
+		}
+		System.arraycopy(exponents, 0, cells, 0, cells.length);
+		emptyCount = 0;
+		maxExponent = 0;
+		for (byte cell : cells) {
+			if (cell == 0) {
+				emptyCount++;
+			}
+			maxExponent = Math.max(maxExponent, cell);
+		}
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < dim; i++) {
+			for (int j = 0; j < dim; j++) {
+				sb.append(getTileValue(i, j));
+				sb.append("\t");
+			}
+			sb.append("\n");
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Slides every line of cells in direction, recording in slideChanged,
+	 * slideMerges and slideMaxExponent whether anything moved, how many tiles
+	 * merged and the highest tile they made
+	 * @return The sum of every tile created by merges
+	 */
+	private int slide(byte[] cells, Direction direction) {
+		slideChanged = false;
+		slideMerges = 0;
+		slideMaxExponent = 0;
+		int gained = 0;
+		for (int i = 0; i < dim; i++) {
+			switch (direction) {
+			case LEFT:
+				gained += slideLine(cells, i * dim, 1);
+				break;
+			case RIGHT:
+				gained += slideLine(cells, i * dim + dim - 1, -1);
+				break;
+			case UP:
+				gained += slideLine(cells, i, dim);
+				break;
+			default:
+				gained += slideLine(cells, (dim - 1) * dim + i, -dim);
+				break;
+			}
+		}
+		return gained;
+	}
+
+	/**
+	 * Compacts and merges one line towards start in a single pass. Tiles are
+	 * written behind the read position, so the line is updated in place.
+	 * @param start The cell at the edge being moved towards
+	 * @param step The distance between neighbouring cells of the line,
+	 * negative to walk backwards
+	 */
+	private int slideLine(byte[] cells, int start, int step) {
+		int gained = 0;
+		int end = start + step * dim;
+		int target = start;
+		int pending = 0;
+		int cell = start;
+		while (cell != end) {
+			if (step == 1) {
+				cell = skipEmptyForward(cells, cell, end);
+				if (cell == end) {
+					break;
+				}
+			} else if (step == -1) {
+				cell = skipEmptyBackward(cells, cell, end);
+				if (cell == end) {
+					break;
+				}
+			}
+			int exponent = cells[cell];
+			cell += step;
+			if (exponent == 0) {
+				continue;
+			}
+			if (pending == 0) {
+				pending = exponent;
+			} else if (pending == exponent && exponent < MAX_EXPONENT) {
+				gained += 1 << (exponent + 1);
+				slideMerges++;
+				slideMaxExponent = Math.max(slideMaxExponent, exponent + 1);
+				target = write(cells, target, exponent + 1, step);
+				pending = 0;
+			} else {
+				target = write(cells, target, pending, step);
+				pending = exponent;
+			}
+		}
+		if (pending != 0) {
+			target = write(cells, target, pending, step);
+		}
+		for (; target != end; target += step) {
+			if (cells[target] != 0) {
+				cells[target] = 0;
+				slideChanged = true;
+			}
+		}
+		return gained;
+	}
+
+	private int write(byte[] cells, int target, int exponent, int step) {
+		if (cells[target] != exponent) {
+			cells[target] = (byte) exponent;
+			slideChanged = true;
+		}
+		return target + step;
+	}
+
+	/**
+	 * @return the first cell from cell on that may be filled, reading eight
+	 * cells at a time, or end
+	 */
+	private static int skipEmptyForward(byte[] cells, int cell, int end) {
+		while (cell + Long.BYTES <= end && (long) WORDS.get(cells, cell) == 0) {
+			cell += Long.BYTES;
+		}
+		return cell;
+	}
+
+	/**
+	 * @return the first cell from cell back that may be filled, reading
+	 * eight cells at a time, or end
+	 */
+	private static int skipEmptyBackward(byte[] cells, int cell, int end) {
+		while (cell - Long.BYTES >= end && (long) WORDS.get(cells, cell - Long.BYTES + 1) == 0) {
+			cell -= Long.BYTES;
+		}
+		return cell;
+	}
+
+	/**
+	 * Checks whether any line would change when slid towards its first cell
+	 * @param first The first cell of the first line
+	 * @param lineStep The distance between the first cells of neighbouring lines
+	 * @param step The distance between neighbouring cells of a line, 
+	 * negative to walk backwards
+	 */
+	private boolean canMove(int first, int lineStep, int step) {
+		for (int i = 0; i < dim; i++) {
+			int cell = first + i * lineStep;
+			for (int j = 1; j < dim; j++) {
+				int next = cell + step;
+				// A tile can move towards an empty cell or merge with an equal one
+				if (cells[next] != 0 && (cells[cell] == 0 || cells[cell] == cells[next])) {
+					return true;
+				}
+				cell = next;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Finds the nth empty tile, counting eight cells at a time
+	 */
+	private int emptyTileIndex(int emptyIndex) {
+		int cell = 0;
+		while (cell + Long.BYTES <= cells.length) {
+			long word = (long) WORDS.get(cells, cell);
+			// Sets the high bit of every zero byte
+			long zeros = ~(((word & LOW_BITS) + LOW_BITS) | word | LOW_BITS);
+			int count = Long.bitCount(zeros);
+			if (emptyIndex < count) {
+				break;
+			}
+			emptyIndex -= count;
+			cell += Long.BYTES;
+		}
+		for (; cell < cells.length; cell++) {
+			if (cells[cell] == 0 && emptyIndex-- == 0) {
+				return cell;
+			}
+		}
+		return -1;
+	}
+
+	private static boolean isTileValue(int value) {
+		return value > 1 && Integer.bitCount(value) == 1 && exponentOf(value) <= MAX_EXPONENT;
+	}
+
+	private static int exponentOf(int value) {
+		return value == 0 ? 0 : Integer.numberOfTrailingZeros(value);
+	}
+
+	private boolean update(Direction direction) {
+		int gained = slide(cells, direction);
+		if (!slideChanged) {
+			return false;
+		}
+		score += gained;
+		emptyCount += slideMerges;
+		maxExponent = Math.max(maxExponent, slideMaxExponent);
+		recordMove(direction);
+		return true;
+	}
+
+	private boolean moveTile(int row, int col, int toRow, int toCol) {
+		if (isValidLocation(row, col) && isValidLocation(toRow, toCol)) {
+			int value = getTileValue(row, col);
+			setTileValue(toRow, toCol, value);
+			setTileValue(row, col, 0);
+			return true;
+		}
+		return false;
+	}
+
+	private boolean mergeTile(int row, int col, int toRow, int toCol) {
+		if (isValidLocation(row, col) && isValidLocation(toRow, toCol)) {
+			int value = getTileValue(toRow, toCol) * 2;
+			if (setTileValue(toRow, toCol, value)) {
+				setTileValue(row, col, 0);
+				score += value;
+				return true;
+			}
+		}
+		return false;
+	}
+}
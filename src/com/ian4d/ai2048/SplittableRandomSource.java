@@ -0,0 +1,99 @@
+package com.ian4d.ai2048;
+
+import java.util.SplittableRandom;
+
+/**
+ * A seeded random source that produces exactly the values SplittableRandom
+ * would for the same seed. The generator's state is a single long, so the
+ * source can be reseeded for every game without allocating.
+ *
+ * Children created by split are seeded from this source, so a whole tree of
+ * games can be replayed from the root seed, and any single game from its own.
+ */
+public class SplittableRandomSource implements IRandomSource {
+
+	// SplittableRandom's increment and the SplitMix64 finalizer constants
+	private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+	private static final double DOUBLE_UNIT = 0x1.0p-53;
+
+	private long seed;
+	private long state;
+
+	/**
+	 * Creates a source with an arbitrary seed
+	 */
+	public SplittableRandomSource() {
+		this(new SplittableRandom().nextLong());
+	}
+
+	/**
+	 * @param seed The seed that fixes every value this source produces
+	 */
+	public SplittableRandomSource(long seed) {
+		reseed(seed);
+	}
+
+	/**
+	 * Starts the source over from a new seed, so one source can be reused for
+	 * game after game. Afterwards it produces the same values as a new source
+	 * created with the seed.
+	 * @param seed The seed that fixes every value this source produces
+	 */
+	public void reseed(long seed) {
+		this.seed = seed;
+		this.state = seed;
+	}
+
+	@Override
+	public int nextInt(int bound) {
+		if (bound <= 0) {
+			throw new IllegalArgumentException("bound must be positive: " + bound);
+		}
+		int r = mix32(nextState());
+		int m = bound - 1;
+		if ((bound & m) == 0) {
+			return r & m;
+		}
+		// Reject the values that would make the result uneven
+		for (int u = r >>> 1; u + m - (r = u % bound) < 0; u = mix32(nextState()) >>> 1) {
+		}
+		return r;
+	}
+
+	@Override
+	public double nextDouble() {
+		return (nextLong() >>> 11) * DOUBLE_UNIT;
+	}
+
+	@Override
+	public long nextLong() {
+		return mix64(nextState());
+	}
+
+	@Override
+	public SplittableRandomSource split() {
+		return new SplittableRandomSource(nextLong());
+	}
+
+	/**
+	 * @return the seed
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
+	private long nextState() {
+		return state += GOLDEN_GAMMA;
+	}
+
+	private static long mix64(long z) {
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+
+	private static int mix32(long z) {
+		z = (z ^ (z >>> 33)) * 0x62a9d9ed799705f5L;
+		return (int) (((z ^ (z >>> 28)) * 0xcb24d0a5c88c35b3L) >>> 32);
+	}
+}
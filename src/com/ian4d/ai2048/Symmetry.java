@@ -0,0 +1,261 @@
+package com.ian4d.ai2048;
+
+/**
+ * The eight rotations and reflections of a square board.
+ *
+ * Boards related by a symmetry play identically: moving the original board
+ * in some direction and then applying the symmetry gives the same board as
+ * applying the symmetry first and moving in the mapped direction. Caches can
+ * store a board under its canonical form, the smallest of its eight images,
+ * and map moves found on the canonical board back with the inverse symmetry.
+ */
+public enum Symmetry {
+	IDENTITY,
+	ROTATE_90,
+	ROTATE_180,
+	ROTATE_270,
+	FLIP_HORIZONTAL,
+	FLIP_VERTICAL,
+	TRANSPOSE,
+	ANTI_TRANSPOSE;
+
+	private static final Symmetry[] SYMMETRIES = values();
+	private static final Direction[] DIRECTIONS = Direction.values();
+
+	// Direction each direction becomes under each symmetry
+	private static final Direction[][] MOVES = new Direction[SYMMETRIES.length][DIRECTIONS.length];
+
+	static {
+		for (Symmetry symmetry : SYMMETRIES) {
+			for (Direction direction : DIRECTIONS) {
+				MOVES[symmetry.ordinal()][direction.ordinal()] = symmetry.mapDirection(direction);
+			}
+		}
+	}
+
+	/**
+	 * Finds the symmetry that turns a packed board into its canonical form
+	 * @param board The packed board
+	 * @return The first symmetry, in declaration order, giving the smallest
+	 * image of board
+	 */
+	public static Symmetry canonicalSymmetry(long board) {
+		long transposed = BitBoard.transpose(board);
+		long[] images = {
+				board,
+				flipHorizontal(transposed),
+				flipHorizontal(flipVertical(board)),
+				flipVertical(transposed),
+				flipHorizontal(board),
+				flipVertical(board),
+				transposed,
+				flipHorizontal(flipVertical(transposed))
+		};
+		int best = 0;
+		for (int i = 1; i < images.length; i++) {
+			if (images[i] < images[best]) {
+				best = i;
+			}
+		}
+		return SYMMETRIES[best];
+	}
+
+	/**
+	 * @param board The packed board
+	 * @return The smallest of the eight images of board, the same for every
+	 * board it is symmetric to
+	 */
+	public static long canonical(long board) {
+		long transposed = BitBoard.transpose(board);
+		long flipped = flipVertical(board);
+		long flippedTransposed = flipVertical(transposed);
+		long min = Math.min(board, flipHorizontal(board));
+		min = Math.min(min, Math.min(flipped, flipHorizontal(flipped)));
+		min = Math.min(min, Math.min(transposed, flipHorizontal(transposed)));
+		return Math.min(min, Math.min(flippedTransposed, flipHorizontal(flippedTransposed)));
+	}
+
+	/**
+	 * Finds the symmetry that turns a square grid into its canonical form,
+	 * the image that comes first when compared tile by tile, row by row
+	 * @param tiles The tiles of any square board
+	 * @return The first symmetry, in declaration order, giving the smallest
+	 * image of tiles
+	 */
+	public static Symmetry canonicalSymmetry(int[][] tiles) {
+		Symmetry best = IDENTITY;
+		for (int i = 1; i < SYMMETRIES.length; i++) {
+			if (SYMMETRIES[i].compareImages(best, tiles) < 0) {
+				best = SYMMETRIES[i];
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * @param tiles The tiles of any square board
+	 * @return A new grid holding the canonical form of tiles
+	 */
+	public static int[][] canonical(int[][] tiles) {
+		return canonicalSymmetry(tiles).apply(tiles);
+	}
+
+	/**
+	 * @param board The packed board
+	 * @return The image of board under this symmetry
+	 */
+	public long apply(long board) {
+		switch (this) {
+		case IDENTITY:
+			return board;
+		case ROTATE_90:
+			return flipHorizontal(BitBoard.transpose(board));
+		case ROTATE_180:
+			return flipHorizontal(flipVertical(board));
+		case ROTATE_270:
+			return flipVertical(BitBoard.transpose(board));
+		case FLIP_HORIZONTAL:
+			return flipHorizontal(board);
+		case FLIP_VERTICAL:
+			return flipVertical(board);
+		case TRANSPOSE:
+			return BitBoard.transpose(board);
+		default:
+			return flipHorizontal(flipVertical(BitBoard.transpose(board)));
+		}
+	}
+
+	/**
+	 * @param tiles The tiles of any square board
+	 * @return A new grid holding the image of tiles under this symmetry
+	 */
+	public int[][] apply(int[][] tiles) {
+		int dim = tiles.length;
+		int[][] image = new int[dim][dim];
+		for (int i = 0; i < dim; i++) {
+			for (int j = 0; j < dim; j++) {
+				image[mapRow(i, j, dim)][mapCol(i, j, dim)] = tiles[i][j];
+			}
+		}
+		return image;
+	}
+
+	/**
+	 * @param move A move on the original board
+	 * @return The move that does the same on the image of the board
+	 */
+	public Direction apply(Direction move) {
+		return MOVES[ordinal()][move.ordinal()];
+	}
+
+	/**
+	 * @return The symmetry that undoes this one. A move found on an image
+	 * is mapped back to the original board with inverse().apply(move).
+	 */
+	public Symmetry inverse() {
+		switch (this) {
+		case ROTATE_90:
+			return ROTATE_270;
+		case ROTATE_270:
+			return ROTATE_90;
+		default:
+			return this;
+		}
+	}
+
+	/**
+	 * @return The row tile row, col of a dim x dim board moves to
+	 */
+	private int mapRow(int row, int col, int dim) {
+		switch (this) {
+		case IDENTITY:
+		case FLIP_HORIZONTAL:
+			return row;
+		case ROTATE_90:
+		case TRANSPOSE:
+			return col;
+		case ROTATE_180:
+		case FLIP_VERTICAL:
+			return dim - 1 - row;
+		default:
+			return dim - 1 - col;
+		}
+	}
+
+	/**
+	 * @return The column tile row, col of a dim x dim board moves to
+	 */
+	private int mapCol(int row, int col, int dim) {
+		switch (this) {
+		case IDENTITY:
+		case FLIP_VERTICAL:
+			return col;
+		case ROTATE_270:
+		case TRANSPOSE:
+			return row;
+		case ROTATE_180:
+		case FLIP_HORIZONTAL:
+			return dim - 1 - col;
+		default:
+			return dim - 1 - row;
+		}
+	}
+
+	/**
+	 * Works out where a step in direction points once the board is mapped
+	 */
+	private Direction mapDirection(Direction direction) {
+		int rowStep = direction == Direction.UP ? -1 : direction == Direction.DOWN ? 1 : 0;
+		int colStep = direction == Direction.LEFT ? -1 : direction == Direction.RIGHT ? 1 : 0;
+		int rowDelta = mapRow(1 + rowStep, 1 + colStep, 3) - mapRow(1, 1, 3);
+		int colDelta = mapCol(1 + rowStep, 1 + colStep, 3) - mapCol(1, 1, 3);
+		if (rowDelta < 0) {
+			return Direction.UP;
+		} else if (rowDelta > 0) {
+			return Direction.DOWN;
+		} else if (colDelta < 0) {
+			return Direction.LEFT;
+		}
+		return Direction.RIGHT;
+	}
+
+	/**
+	 * Compares the images of tiles under this symmetry and another, tile by
+	 * tile, without building either
+	 */
+	private int compareImages(Symmetry other, int[][] tiles) {
+		int dim = tiles.length;
+		Symmetry thisInverse = inverse();
+		Symmetry otherInverse = other.inverse();
+		for (int i = 0; i < dim; i++) {
+			for (int j = 0; j < dim; j++) {
+				int mine = tiles[thisInverse.mapRow(i, j, dim)][thisInverse.mapCol(i, j, dim)];
+				int theirs = tiles[otherInverse.mapRow(i, j, dim)][otherInverse.mapCol(i, j, dim)];
+				if (mine != theirs) {
+					return mine < theirs ? -1 : 1;
+				}
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Reverses the tiles of every row of a packed board
+	 */
+	private static long flipHorizontal(long board) {
+		return ((board & 0x000F000F000F000FL) << 12)
+				| ((board & 0x00F000F000F000F0L) << 4)
+				| ((board >>> 4) & 0x00F000F000F000F0L)
+				| ((board >>> 12) & 0x000F000F000F000FL);
+	}
+
+	/**
+	 * Reverses the order of the rows of a packed board
+	 */
+	private static long flipVertical(long board) {
+		return (board << 48)
+				| ((board & 0xFFFF0000L) << 16)
+				| ((board >>> 16) & 0xFFFF0000L)
+				| (board >>> 48);
+	}
+}
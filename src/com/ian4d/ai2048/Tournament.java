@@ -0,0 +1,291 @@
+package com.ian4d.ai2048;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.ian4d.ai2048.events.IGameListener;
+import com.ian4d.ai2048.events.IProgressListener;
+import com.ian4d.ai2048.players.IPlayer;
+import com.ian4d.ai2048.players.IPlayerFactory;
+import com.ian4d.ai2048.replay.GameRecorder;
+import com.ian4d.ai2048.replay.ReplayWriter;
+
+/**
+ * Plays many games per player across a pool of worker threads.
+ *
+ * Every worker owns its own Game and Board, takes games from a shared counter
+ * until all have been played, and creates a fresh player for each game. The
+ * per worker results are merged once the last game finishes. A progress
+ * listener gets snapshots along the way, which workers publish without
+ * locking by handing over a copy of their results after their first game
+ * and then four times per report period. Each game is
+ * seeded by its position in the tournament, so a seeded tournament with
+ * deterministic players gives the same results on any number of workers.
+ */
+public class Tournament {
+
+	public static final int DEFAULT_MAX_TURNS = 100000;
+
+	/**
+	 * Creates a tournament with its own worker pool
+	 * @param dimension The size of each side of the board
+	 * @param maxScore The maximum power of 2 which the players are trying to reach
+	 * @param workers The number of worker threads
+	 * @return
+	 */
+	public static Tournament newTournament(int dimension, int maxScore, int workers) {
+		return newTournament(dimension, maxScore, workers, new SplittableRandomSource());
+	}
+
+	/**
+	 * Creates a tournament with its own worker pool whose games are all
+	 * seeded from random
+	 * @param dimension The size of each side of the board
+	 * @param maxScore The maximum power of 2 which the players are trying to reach
+	 * @param workers The number of worker threads
+	 * @param random Draws one seed per game, in game order
+	 * @return
+	 */
+	public static Tournament newTournament(int dimension, int maxScore, int workers, IRandomSource random) {
+		Tournament tournament = new Tournament();
+		tournament.boardDimension = dimension;
+		tournament.boardMaxScore = maxScore;
+		tournament.workers = workers;
+		tournament.random = random;
+		tournament.pool = Executors.newFixedThreadPool(workers);
+		return tournament;
+	}
+
+	private ExecutorService pool;
+	private IRandomSource random;
+	private int workers;
+	private int boardDimension;
+	private int boardMaxScore;
+	private int maxTurns = DEFAULT_MAX_TURNS;
+	private ReplayWriter replayWriter;
+	private final List<IGameListener> listeners = new ArrayList<IGameListener>();
+	private IProgressListener progressListener;
+	private long progressNanos;
+
+	/**
+	 * Plays games with fresh players from factory
+	 * @param factory Creates a player for every game
+	 * @param games The number of games to play
+	 * @return The merged results of every game
+	 * @throws InterruptedException if interrupted while waiting for the workers
+	 */
+	public TournamentResult play(final IPlayerFactory factory, final int games) throws InterruptedException {
+		long start = System.nanoTime();
+		final String name = factory.getPlayerName();
+		final AtomicInteger nextGame = new AtomicInteger();
+
+		// Seeds are drawn up front so game i gets the same seed whichever
+		// worker ends up playing it
+		final long[] seeds = new long[games];
+		for (int i = 0; i < games; i++) {
+			seeds[i] = random.nextLong();
+		}
+
+		// The latest results each worker has handed over for progress reports
+		final int workerCount = Math.min(workers, games);
+		final AtomicReferenceArray<TournamentResult> progress = new AtomicReferenceArray<TournamentResult>(workerCount);
+		final IProgressListener reporter = progressListener;
+		final long period = progressNanos;
+		// Workers publish more often than reports go out, so snapshots are
+		// never more than a fraction of a period behind
+		final long publishPeriod = period / 4;
+
+		List<Future<TournamentResult>> futures = new ArrayList<Future<TournamentResult>>();
+		for (int i = 0; i < workerCount; i++) {
+			final int worker = i;
+			futures.add(pool.submit(new Callable<TournamentResult>() {
+				@Override
+				public TournamentResult call() {
+					TournamentResult result = new TournamentResult(name);
+					// The first game is published straight away
+					long nextPublish = System.nanoTime();
+					Game game = null;
+					int index;
+					try {
+						while ((index = nextGame.getAndIncrement()) < games) {
+							IPlayer player = factory.createPlayer();
+							if (game == null) {
+								game = GamePool.get().acquire(boardDimension, boardMaxScore);
+								if (replayWriter != null) {
+									game.addGameListener(new GameRecorder(replayWriter));
+								}
+								for (IGameListener listener : listeners) {
+									game.addGameListener(listener);
+								}
+							}
+							game.restart(player, seeds[index]);
+							playGame(game, result);
+							if (period > 0 && System.nanoTime() - nextPublish >= 0) {
+								progress.set(worker, result.copy());
+								nextPublish = System.nanoTime() + publishPeriod;
+							}
+						}
+					} finally {
+						if (game != null) {
+							GamePool.get().release(game);
+						}
+					}
+					return result;
+				}
+			}));
+		}
+
+		TournamentResult total = new TournamentResult(name);
+		long nextReport = start + period;
+		for (int i = 0; i < futures.size(); i++) {
+			TournamentResult result = null;
+			while (result == null) {
+				try {
+					if (period > 0) {
+						result = futures.get(i).get(Math.max(0, nextReport - System.nanoTime()), TimeUnit.NANOSECONDS);
+					} else {
+						result = futures.get(i).get();
+					}
+				} catch (TimeoutException ex) {
+					// Until a worker publishes there is nothing to report, so
+					// look again sooner
+					boolean reported = reportProgress(reporter, name, progress, start);
+					nextReport = System.nanoTime() + (reported ? period : publishPeriod);
+				} catch (ExecutionException ex) {
+					throw new IllegalStateException("Tournament worker failed", ex.getCause());
+				}
+			}
+			// Finished workers report their final results
+			progress.set(i, result);
+			total.merge(result);
+		}
+		total.setElapsedNanos(System.nanoTime() - start);
+		return total;
+	}
+
+	/**
+	 * Plays the same number of games for every factory in turn
+	 * @param factories The players to evaluate
+	 * @param games The number of games to play per player
+	 * @return One result per factory, in order
+	 * @throws InterruptedException if interrupted while waiting for the workers
+	 */
+	public List<TournamentResult> play(List<IPlayerFactory> factories, int games) throws InterruptedException {
+		List<TournamentResult> results = new ArrayList<TournamentResult>();
+		for (IPlayerFactory factory : factories) {
+			results.add(play(factory, games));
+		}
+		return results;
+	}
+
+	/**
+	 * Stops the worker threads once running games finish
+	 */
+	public void shutdown() {
+		pool.shutdown();
+	}
+
+	/**
+	 * Players that keep making moves which change nothing never reach the
+	 * end of the game, so games are cut off and counted as losses after this
+	 * many turns
+	 * @param maxTurns the maxTurns to set
+	 */
+	public void setMaxTurns(int maxTurns) {
+		this.maxTurns = maxTurns;
+	}
+
+	/**
+	 * Records every game played from now on
+	 * @param replayWriter the file to write games to, or null to stop
+	 */
+	public void setReplayWriter(ReplayWriter replayWriter) {
+		this.replayWriter = replayWriter;
+	}
+
+	/**
+	 * Reports the events of every game played from now on. Workers call the
+	 * listener concurrently, so it must be thread safe.
+	 * @param listener The listener to add
+	 */
+	public void addGameListener(IGameListener listener) {
+		listeners.add(listener);
+	}
+
+	/**
+	 * @param listener The listener to remove
+	 */
+	public void removeGameListener(IGameListener listener) {
+		listeners.remove(listener);
+	}
+
+	/**
+	 * Reports the results of the games played so far, every period while
+	 * games are played. Workers hand over their results after their first
+	 * game and then every quarter period, so a snapshot is at most about a
+	 * quarter period behind. Nothing is reported before the first game
+	 * finishes.
+	 * @param listener The listener to call, on the thread calling play, or
+	 * null to stop
+	 * @param periodMillis The time between reports
+	 */
+	public void setProgressListener(IProgressListener listener, long periodMillis) {
+		if (listener != null && periodMillis <= 0) {
+			throw new IllegalArgumentException("Progress period must be positive: " + periodMillis);
+		}
+		this.progressListener = listener;
+		this.progressNanos = listener == null ? 0 : TimeUnit.MILLISECONDS.toNanos(periodMillis);
+	}
+
+	/**
+	 * Merges the latest results of every worker into a snapshot for the
+	 * progress listener
+	 * @return false if no worker has published any results yet, in which
+	 * case the listener isn't called
+	 */
+	private static boolean reportProgress(IProgressListener listener, String name, AtomicReferenceArray<TournamentResult> progress, long start) {
+		TournamentResult snapshot = new TournamentResult(name);
+		boolean published = false;
+		for (int i = 0; i < progress.length(); i++) {
+			TournamentResult result = progress.get(i);
+			if (result != null) {
+				snapshot.merge(result);
+				published = true;
+			}
+		}
+		if (!published) {
+			return false;
+		}
+		snapshot.setElapsedNanos(System.nanoTime() - start);
+		listener.progressReported(snapshot);
+		return true;
+	}
+
+	/**
+	 * Plays one game to the end and records it
+	 */
+	private void playGame(Game game, TournamentResult result) {
+		int wins = game.getWinCount();
+		int turns = 0;
+		boolean finished = true;
+		while (!game.makeMove()) {
+			if (++turns >= maxTurns) {
+				finished = false;
+				game.abandon();
+				break;
+			}
+			game.startNextTurn();
+		}
+		boolean won = finished && game.getWinCount() > wins;
+		result.addGame(won, finished, game.getScore(), game.getTurns(), game.getMaxTile());
+	}
+}
@@ -0,0 +1,173 @@
+package com.ian4d.ai2048;
+
+import com.ian4d.ai2048.metrics.GameStatistics;
+
+/**
+ * Win, loss and score totals for a set of games played by one kind of player.
+ *
+ * Each tournament worker fills its own result, and the results are merged
+ * once every game has finished.
+ */
+public class TournamentResult {
+
+	private final String playerName;
+	private int games = 0;
+	private int wins = 0;
+	private int losses = 0;
+	private int stalled = 0;
+	private long totalScore = 0;
+	private int bestScore = 0;
+	private long totalTurns = 0;
+	private int highestTile = 0;
+	private long elapsedNanos = 0;
+	private final GameStatistics statistics = new GameStatistics();
+
+	/**
+	 * @param playerName The name reported for the player
+	 */
+	public TournamentResult(String playerName) {
+		this.playerName = playerName;
+	}
+
+	/**
+	 * Records a finished game
+	 * @param won true if the game was won
+	 * @param finished false if the game was cut off at the turn limit
+	 * @param score The final score
+	 * @param turns The number of turns played
+	 * @param maxTile The highest tile on the final board
+	 */
+	public void addGame(boolean won, boolean finished, int score, int turns, int maxTile) {
+		games++;
+		if (won) {
+			wins++;
+		} else {
+			losses++;
+		}
+		if (!finished) {
+			stalled++;
+		}
+		totalScore += score;
+		bestScore = Math.max(bestScore, score);
+		totalTurns += turns;
+		highestTile = Math.max(highestTile, maxTile);
+		statistics.addGame(won, score, maxTile);
+	}
+
+	/**
+	 * Adds the games recorded by another result to this one
+	 * @param other The result to merge
+	 */
+	public void merge(TournamentResult other) {
+		games += other.games;
+		wins += other.wins;
+		losses += other.losses;
+		stalled += other.stalled;
+		totalScore += other.totalScore;
+		bestScore = Math.max(bestScore, other.bestScore);
+		totalTurns += other.totalTurns;
+		highestTile = Math.max(highestTile, other.highestTile);
+		statistics.merge(other.statistics);
+	}
+
+	/**
+	 * @return an independent copy, for the thread filling this result to hand
+	 * to others while it keeps going
+	 */
+	public TournamentResult copy() {
+		TournamentResult copy = new TournamentResult(playerName);
+		copy.merge(this);
+		copy.elapsedNanos = elapsedNanos;
+		return copy;
+	}
+
+	/**
+	 * @return the playerName
+	 */
+	public String getPlayerName() {
+		return playerName;
+	}
+
+	/**
+	 * @return the games
+	 */
+	public int getGames() {
+		return games;
+	}
+
+	/**
+	 * @return the wins
+	 */
+	public int getWins() {
+		return wins;
+	}
+
+	/**
+	 * @return the losses, including stalled games
+	 */
+	public int getLosses() {
+		return losses;
+	}
+
+	/**
+	 * @return the number of games cut off at the turn limit
+	 */
+	public int getStalled() {
+		return stalled;
+	}
+
+	/**
+	 * @return the mean final score
+	 */
+	public double getAverageScore() {
+		return games == 0 ? 0 : (double) totalScore / games;
+	}
+
+	/**
+	 * @return the bestScore
+	 */
+	public int getBestScore() {
+		return bestScore;
+	}
+
+	/**
+	 * @return the mean number of turns per game
+	 */
+	public double getAverageTurns() {
+		return games == 0 ? 0 : (double) totalTurns / games;
+	}
+
+	/**
+	 * @return the highestTile
+	 */
+	public int getHighestTile() {
+		return highestTile;
+	}
+
+	/**
+	 * @return the score, win rate and highest tile distributions
+	 */
+	public GameStatistics getStatistics() {
+		return statistics;
+	}
+
+	/**
+	 * @return the wall clock time taken to play every game
+	 */
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+
+	/**
+	 * @param elapsedNanos the elapsedNanos to set
+	 */
+	public void setElapsedNanos(long elapsedNanos) {
+		this.elapsedNanos = elapsedNanos;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s: %d games, %d wins, %d losses (%d stalled), avg score %.1f, best score %d, avg turns %.1f, highest tile %d, %.2fs",
+				playerName, games, wins, losses, stalled, getAverageScore(), bestScore, getAverageTurns(), highestTile, elapsedNanos / 1e9);
+	}
+}
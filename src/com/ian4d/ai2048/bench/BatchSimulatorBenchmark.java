@@ -0,0 +1,61 @@
+package com.ian4d.ai2048.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ian4d.ai2048.BatchSimulator;
+import com.ian4d.ai2048.Board;
+import com.ian4d.ai2048.SplittableRandomSource;
+import com.ian4d.ai2048.TournamentResult;
+import com.ian4d.ai2048.players.GreedyBatchPolicy;
+import com.ian4d.ai2048.players.IBatchPolicy;
+import com.ian4d.ai2048.players.RandomBatchPolicy;
+
+/**
+ * Whole batches of games played in lockstep. Divide the average turns of the
+ * result by the time per batch to get moves per second, and compare with
+ * GameLoopBenchmark at dim 4 for the cost of one Game per game.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchSimulatorBenchmark {
+
+	@Param({"256", "4096"})
+	public int batchSize;
+
+	@Param({"random", "greedy"})
+	public String policyName;
+
+	private BatchSimulator simulator;
+	private IBatchPolicy policy;
+
+	@Setup
+	public void setUp() {
+		simulator = BatchSimulator.newBatchSimulator(batchSize, Board.MAX_POWER, new SplittableRandomSource(BenchmarkBoards.SEED));
+		if (policyName.equals("random")) {
+			policy = new RandomBatchPolicy(new SplittableRandomSource(BenchmarkBoards.SEED));
+		} else {
+			policy = new GreedyBatchPolicy();
+		}
+	}
+
+	@Benchmark
+	public TournamentResult playBatch() {
+		return simulator.play(policy, batchSize);
+	}
+}
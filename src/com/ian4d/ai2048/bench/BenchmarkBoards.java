@@ -0,0 +1,52 @@
+package com.ian4d.ai2048.bench;
+
+import java.util.Random;
+
+import com.ian4d.ai2048.Board;
+
+/**
+ * Builds reproducible board snapshots for the benchmarks
+ */
+class BenchmarkBoards {
+
+	// Fixed so every run measures the same positions
+	static final long SEED = 2048;
+
+	// Highest exponent placed on generated boards
+	private static final int MAX_EXPONENT = 10;
+
+	/**
+	 * Creates a board with a fraction of its tiles filled with random powers of 2
+	 * @param dim The size of each side of the board
+	 * @param fill The fraction of tiles to fill, from 0 to 1
+	 * @param seed The seed for tile placement and values
+	 * @return The tiles of the board
+	 */
+	static int[][] randomTiles(int dim, double fill, long seed) {
+		Random random = new Random(seed);
+		int[][] tiles = new int[dim][dim];
+		int filled = (int) Math.round(fill * dim * dim);
+		while (filled > 0) {
+			int row = random.nextInt(dim);
+			int col = random.nextInt(dim);
+			if (tiles[row][col] == 0) {
+				tiles[row][col] = 1 << (1 + random.nextInt(MAX_EXPONENT));
+				filled--;
+			}
+		}
+		return tiles;
+	}
+
+	/**
+	 * Copies a snapshot onto a board without allocating
+	 * @param board The board to restore
+	 * @param snapshot The tiles to copy
+	 * @param scratch A dim x dim array to copy through
+	 */
+	static void restore(Board board, int[][] snapshot, int[][] scratch) {
+		for (int i = 0; i < snapshot.length; i++) {
+			System.arraycopy(snapshot[i], 0, scratch[i], 0, snapshot[i].length);
+		}
+		board.setTiles(scratch);
+	}
+}
@@ -0,0 +1,80 @@
+package com.ian4d.ai2048.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ian4d.ai2048.BitBoard;
+
+/**
+ * Hot paths of the packed 4x4 BitBoard engine.
+ *
+ * Moves change the board, so every operation first restores the same packed
+ * snapshot, which is a single field write.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BitBoardBenchmark {
+
+	@Param({"0.25", "0.5", "0.9"})
+	public double fill;
+
+	private BitBoard board;
+	private long snapshot;
+
+	@Setup
+	public void setUp() {
+		board = BitBoard.createBitBoard(BitBoard.MAX_POWER);
+		board.setTiles(BenchmarkBoards.randomTiles(BitBoard.DIM, fill, BenchmarkBoards.SEED));
+		snapshot = board.getPackedBoard();
+	}
+
+	@Benchmark
+	public boolean moveLeft() {
+		board.setPackedBoard(snapshot);
+		return board.moveLeft();
+	}
+
+	@Benchmark
+	public boolean moveRight() {
+		board.setPackedBoard(snapshot);
+		return board.moveRight();
+	}
+
+	@Benchmark
+	public boolean moveUp() {
+		board.setPackedBoard(snapshot);
+		return board.moveUp();
+	}
+
+	@Benchmark
+	public boolean moveDown() {
+		board.setPackedBoard(snapshot);
+		return board.moveDown();
+	}
+
+	@Benchmark
+	public boolean hasLegalMoves() {
+		return board.hasLegalMoves();
+	}
+
+	@Benchmark
+	public boolean fillRandomTile() {
+		board.setPackedBoard(snapshot);
+		return board.fillRandomTile(2);
+	}
+}
@@ -0,0 +1,94 @@
+package com.ian4d.ai2048.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ian4d.ai2048.Board;
+
+/**
+ * Hot paths of the grid Board engine.
+ *
+ * Moves change the board, so every operation first restores the same
+ * snapshot. The restore benchmark measures that cost on its own, subtract it
+ * from the other results to get the cost of the operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+
+	// The sizes TestBoard covers
+	@Param({"2", "4", "16"})
+	public int dim;
+
+	@Param({"0.25", "0.5", "0.9"})
+	public double fill;
+
+	private Board board;
+	private int[][] snapshot;
+	private int[][] scratch;
+
+	@Setup
+	public void setUp() {
+		board = Board.createBoard(dim, Board.MAX_POWER);
+		snapshot = BenchmarkBoards.randomTiles(dim, fill, BenchmarkBoards.SEED);
+		scratch = new int[dim][dim];
+		// hasLegalMoves doesn't change the board, so it reads this copy
+		BenchmarkBoards.restore(board, snapshot, scratch);
+	}
+
+	@Benchmark
+	public Board restore() {
+		BenchmarkBoards.restore(board, snapshot, scratch);
+		return board;
+	}
+
+	@Benchmark
+	public boolean moveLeft() {
+		BenchmarkBoards.restore(board, snapshot, scratch);
+		return board.moveLeft();
+	}
+
+	@Benchmark
+	public boolean moveRight() {
+		BenchmarkBoards.restore(board, snapshot, scratch);
+		return board.moveRight();
+	}
+
+	@Benchmark
+	public boolean moveUp() {
+		BenchmarkBoards.restore(board, snapshot, scratch);
+		return board.moveUp();
+	}
+
+	@Benchmark
+	public boolean moveDown() {
+		BenchmarkBoards.restore(board, snapshot, scratch);
+		return board.moveDown();
+	}
+
+	@Benchmark
+	public boolean hasLegalMoves() {
+		return board.hasLegalMoves();
+	}
+
+	@Benchmark
+	public boolean fillRandomTile() {
+		BenchmarkBoards.restore(board, snapshot, scratch);
+		return board.fillRandomTile(2);
+	}
+}
@@ -0,0 +1,59 @@
+package com.ian4d.ai2048.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ian4d.ai2048.Board;
+import com.ian4d.ai2048.Game;
+import com.ian4d.ai2048.players.Pattern1;
+
+/**
+ * End of turn checks of Game. Neither check changes the board, so the
+ * snapshot is only restored once.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameBenchmark {
+
+	// The sizes TestBoard covers
+	@Param({"2", "4", "16"})
+	public int dim;
+
+	// A full board is the only case where checkFailure scans for legal moves
+	@Param({"0.25", "0.5", "0.9", "1.0"})
+	public double fill;
+
+	private Game game;
+
+	@Setup
+	public void setUp() {
+		game = Game.newGame(dim, Board.MAX_POWER, new Pattern1());
+		Board board = game.getBoard();
+		BenchmarkBoards.restore(board, BenchmarkBoards.randomTiles(dim, fill, BenchmarkBoards.SEED), new int[dim][dim]);
+	}
+
+	@Benchmark
+	public boolean checkVictory() {
+		return game.checkVictory();
+	}
+
+	@Benchmark
+	public boolean checkFailure() {
+		return game.checkFailure();
+	}
+}
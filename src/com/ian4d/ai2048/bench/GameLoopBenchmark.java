@@ -0,0 +1,54 @@
+package com.ian4d.ai2048.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ian4d.ai2048.Board;
+import com.ian4d.ai2048.Game;
+import com.ian4d.ai2048.players.Pattern1;
+
+/**
+ * Complete games played the same way Tournament plays them, with Pattern1
+ * because it always finishes a game.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameLoopBenchmark {
+
+	// The sizes TestBoard covers
+	@Param({"2", "4", "16"})
+	public int dim;
+
+	private Game game;
+
+	@Setup
+	public void setUp() {
+		game = Game.newGame(dim, Board.MAX_POWER, new Pattern1());
+	}
+
+	@Benchmark
+	public int fullGame() {
+		game.restart(new Pattern1());
+		int turns = 0;
+		while (!game.makeMove()) {
+			game.startNextTurn();
+			turns++;
+		}
+		return turns;
+	}
+}
@@ -0,0 +1,91 @@
+package com.ian4d.ai2048.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ian4d.ai2048.Board;
+import com.ian4d.ai2048.LargeBoard;
+
+/**
+ * Hot paths of the byte per tile LargeBoard engine, at the sizes used for
+ * research runs. Compare with BoardBenchmark at dim 16 for the grid engine.
+ *
+ * Moves change the board, so every operation first restores the same
+ * snapshot with a single array copy.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LargeBoardBenchmark {
+
+	@Param({"8", "16", "32"})
+	public int dim;
+
+	@Param({"0.25", "0.5", "0.9"})
+	public double fill;
+
+	private LargeBoard board;
+	private byte[] snapshot;
+
+	@Setup
+	public void setUp() {
+		board = LargeBoard.createLargeBoard(dim, Board.MAX_POWER);
+		board.setTiles(BenchmarkBoards.randomTiles(dim, fill, BenchmarkBoards.SEED));
+		snapshot = board.getCells().clone();
+	}
+
+	@Benchmark
+	public LargeBoard restore() {
+		board.setCells(snapshot);
+		return board;
+	}
+
+	@Benchmark
+	public boolean moveLeft() {
+		board.setCells(snapshot);
+		return board.moveLeft();
+	}
+
+	@Benchmark
+	public boolean moveRight() {
+		board.setCells(snapshot);
+		return board.moveRight();
+	}
+
+	@Benchmark
+	public boolean moveUp() {
+		board.setCells(snapshot);
+		return board.moveUp();
+	}
+
+	@Benchmark
+	public boolean moveDown() {
+		board.setCells(snapshot);
+		return board.moveDown();
+	}
+
+	@Benchmark
+	public boolean hasLegalMoves() {
+		return board.hasLegalMoves();
+	}
+
+	@Benchmark
+	public boolean fillRandomTile() {
+		board.setCells(snapshot);
+		return board.fillRandomTile(2);
+	}
+}
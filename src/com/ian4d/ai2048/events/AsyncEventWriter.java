@@ -0,0 +1,163 @@
+package com.ian4d.ai2048.events;
+
+import java.io.Closeable;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import com.ian4d.ai2048.Direction;
+
+/**
+ * Writes game events as text lines on a background thread.
+ *
+ * Games hand events to the writer through a bounded EventRing, and the
+ * writer thread drains it in batches, writing each batch to the stream in a
+ * single call. Games never block on the stream: when the ring is full the
+ * event is dropped and counted instead. One writer can be shared by the
+ * games of every tournament worker.
+ */
+public class AsyncEventWriter implements IGameListener, Closeable {
+
+	public static final int DEFAULT_CAPACITY = 1 << 16;
+	public static final int BATCH_SIZE = 1024;
+
+	private static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+	private static final Direction[] DIRECTIONS = Direction.values();
+
+	private final EventRing ring;
+	private final PrintStream out;
+	private final boolean turns;
+	private final Thread thread;
+	private final AtomicLong dropped = new AtomicLong();
+	private volatile boolean running = true;
+
+	/**
+	 * Writes started and ended games only
+	 * @param out The stream to write to
+	 */
+	public AsyncEventWriter(PrintStream out) {
+		this(out, DEFAULT_CAPACITY, false);
+	}
+
+	/**
+	 * @param out The stream to write to
+	 * @param capacity The number of events that can wait to be written
+	 * @param turns true to also write every turn and spawned tile
+	 */
+	public AsyncEventWriter(PrintStream out, int capacity, boolean turns) {
+		this.ring = new EventRing(capacity);
+		this.out = out;
+		this.turns = turns;
+		this.thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				drain();
+			}
+		}, "event-writer");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	@Override
+	public void gameStarted(long seed, int dim, int maxPower) {
+		offer(EventRing.GAME_STARTED, seed, dim, maxPower, 0);
+	}
+
+	@Override
+	public void turnPlayed(int turn, Direction move, long nanos, int score) {
+		if (turns) {
+			offer(EventRing.TURN_PLAYED, nanos, turn, move == null ? -1 : move.ordinal(), score);
+		}
+	}
+
+	@Override
+	public void tileSpawned(int index, int value) {
+		if (turns) {
+			offer(EventRing.TILE_SPAWNED, 0, index, value, 0);
+		}
+	}
+
+	@Override
+	public void gameEnded(int turns, int score, int maxTile, boolean won) {
+		offer(EventRing.GAME_ENDED, won ? 1 : 0, turns, score, maxTile);
+	}
+
+	/**
+	 * @return the number of events dropped because the ring was full
+	 */
+	public long getDropped() {
+		return dropped.get();
+	}
+
+	/**
+	 * Writes the events already offered, then stops the writer thread
+	 */
+	@Override
+	public void close() {
+		running = false;
+		LockSupport.unpark(thread);
+		try {
+			thread.join();
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void offer(int type, long value, int a, int b, int c) {
+		if (!ring.offer(type, value, a, b, c)) {
+			dropped.incrementAndGet();
+		}
+	}
+
+	private void drain() {
+		EventRing.Event event = new EventRing.Event();
+		StringBuilder batch = new StringBuilder();
+		while (true) {
+			// Read the flag before draining so nothing offered before close is lost
+			boolean stopping = !running;
+			int count = 0;
+			while (count < BATCH_SIZE && ring.poll(event)) {
+				format(event, batch);
+				count++;
+			}
+			if (count > 0) {
+				out.print(batch);
+				out.flush();
+				batch.setLength(0);
+			} else if (stopping) {
+				return;
+			} else {
+				LockSupport.parkNanos(IDLE_NANOS);
+			}
+		}
+	}
+
+	private static void format(EventRing.Event event, StringBuilder sb) {
+		switch (event.type) {
+		case EventRing.GAME_STARTED:
+			sb.append("GAME START seed=").append(event.value)
+					.append(" dim=").append(event.a)
+					.append(" maxPower=").append(event.b);
+			break;
+		case EventRing.TURN_PLAYED:
+			sb.append("TURN ").append(event.a)
+					.append(' ').append(event.b < 0 ? "NONE" : DIRECTIONS[event.b].name())
+					.append(" score=").append(event.c)
+					.append(" nanos=").append(event.value);
+			break;
+		case EventRing.TILE_SPAWNED:
+			sb.append("SPAWN ").append(event.b).append(" at ").append(event.a);
+			break;
+		case EventRing.GAME_ENDED:
+			sb.append(event.value == 1 ? "GAME OVER: YOU WIN" : "GAME OVER: YOU LOSE")
+					.append(" turns=").append(event.a)
+					.append(" score=").append(event.b)
+					.append(" maxTile=").append(event.c);
+			break;
+		default:
+			throw new IllegalStateException("Unknown event type: " + event.type);
+		}
+		sb.append(System.lineSeparator());
+	}
+}
@@ -0,0 +1,110 @@
+package com.ian4d.ai2048.events;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded multi producer, single consumer queue of game events.
+ *
+ * Events are stored field by field in preallocated slots, so offering one
+ * doesn't allocate. Each slot carries a sequence number: a producer claims
+ * the slot at the tail by advancing the tail, fills it in, then publishes it
+ * by setting its sequence, and the consumer only reads slots that have been
+ * published. When the ring is full offer fails instead of waiting.
+ */
+class EventRing {
+
+	static final int GAME_STARTED = 0;
+	static final int TURN_PLAYED = 1;
+	static final int TILE_SPAWNED = 2;
+	static final int GAME_ENDED = 3;
+
+	private final int mask;
+	private final AtomicLongArray sequences;
+	private final AtomicLong tail = new AtomicLong();
+	private long head = 0;
+
+	private final int[] types;
+	private final long[] longs;
+	private final int[] first;
+	private final int[] second;
+	private final int[] third;
+
+	/**
+	 * @param capacity Rounded up to a power of 2
+	 */
+	EventRing(int capacity) {
+		if (capacity < 1 || capacity > 1 << 30) {
+			throw new IllegalArgumentException("Capacity out of range: " + capacity);
+		}
+		int size = Integer.highestOneBit(capacity - 1) << 1;
+		size = Math.max(1, size);
+		mask = size - 1;
+		sequences = new AtomicLongArray(size);
+		for (int i = 0; i < size; i++) {
+			sequences.set(i, i);
+		}
+		types = new int[size];
+		longs = new long[size];
+		first = new int[size];
+		second = new int[size];
+		third = new int[size];
+	}
+
+	/**
+	 * Adds an event if there is room, from any thread
+	 * @return false if the ring was full and the event was dropped
+	 */
+	boolean offer(int type, long value, int a, int b, int c) {
+		long position;
+		while (true) {
+			position = tail.get();
+			long sequence = sequences.get((int) position & mask);
+			if (sequence < position) {
+				return false;
+			}
+			if (sequence == position && tail.compareAndSet(position, position + 1)) {
+				break;
+			}
+		}
+		int slot = (int) position & mask;
+		types[slot] = type;
+		longs[slot] = value;
+		first[slot] = a;
+		second[slot] = b;
+		third[slot] = c;
+		sequences.lazySet(slot, position + 1);
+		return true;
+	}
+
+	/**
+	 * Takes the oldest published event, from the consumer thread only
+	 * @param event Filled with the event
+	 * @return false if there was nothing to take
+	 */
+	boolean poll(Event event) {
+		int slot = (int) head & mask;
+		if (sequences.get(slot) != head + 1) {
+			return false;
+		}
+		event.type = types[slot];
+		event.value = longs[slot];
+		event.a = first[slot];
+		event.b = second[slot];
+		event.c = third[slot];
+		sequences.lazySet(slot, head + mask + 1);
+		head++;
+		return true;
+	}
+
+	/**
+	 * A reusable copy of one event taken from the ring
+	 */
+	static class Event {
+		int type;
+		long value;
+		int a;
+		int b;
+		int c;
+	}
+}
@@ -0,0 +1,25 @@
+package com.ian4d.ai2048.events;
+
+import com.ian4d.ai2048.Direction;
+
+/**
+ * Ignores every event. Extend it to handle only some of them.
+ */
+public class HeadlessListener implements IGameListener {
+
+	@Override
+	public void gameStarted(long seed, int dim, int maxPower) {
+	}
+
+	@Override
+	public void turnPlayed(int turn, Direction move, long nanos, int score) {
+	}
+
+	@Override
+	public void tileSpawned(int index, int value) {
+	}
+
+	@Override
+	public void gameEnded(int turns, int score, int maxTile, boolean won) {
+	}
+}
@@ -0,0 +1,47 @@
+package com.ian4d.ai2048.events;
+
+import com.ian4d.ai2048.Direction;
+
+/**
+ * Receives the events of a Game as it is played.
+ *
+ * Listeners are called on the thread playing the game, between moves, so
+ * they should return quickly and hand anything slow, like I/O, to another
+ * thread.
+ */
+public interface IGameListener {
+
+	/**
+	 * Called when a new game starts
+	 * @param seed The seed of the game
+	 * @param dim The size of each side of the board
+	 * @param maxPower The maximum power of 2 the player is trying to reach
+	 */
+	public void gameStarted(long seed, int dim, int maxPower);
+
+	/**
+	 * Called after every move the player decides on is applied
+	 * @param turn The number of moves made so far, including this one
+	 * @param move The move made, or null if the board didn't change
+	 * @param nanos The time from asking the player to decide until the move
+	 * was applied
+	 * @param score The score after the move
+	 */
+	public void turnPlayed(int turn, Direction move, long nanos, int score);
+
+	/**
+	 * Called after a tile is placed at the start of a turn
+	 * @param index The tile index, row * dim + col
+	 * @param value The value placed
+	 */
+	public void tileSpawned(int index, int value);
+
+	/**
+	 * Called once a game has ended
+	 * @param turns The number of moves made
+	 * @param score The final score
+	 * @param maxTile The highest tile on the final board
+	 * @param won true if the game was won
+	 */
+	public void gameEnded(int turns, int score, int maxTile, boolean won);
+}
@@ -0,0 +1,17 @@
+package com.ian4d.ai2048.events;
+
+import com.ian4d.ai2048.TournamentResult;
+
+/**
+ * Receives snapshots of the results of a long run of games while it is still
+ * going.
+ */
+public interface IProgressListener {
+
+	/**
+	 * Called periodically on the thread waiting for the games to finish
+	 * @param snapshot The games finished so far, merged from every worker. The
+	 * listener can keep it, nothing else changes it.
+	 */
+	public void progressReported(TournamentResult snapshot);
+}
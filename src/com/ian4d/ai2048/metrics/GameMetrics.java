@@ -0,0 +1,142 @@
+package com.ian4d.ai2048.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+import com.ian4d.ai2048.Direction;
+import com.ian4d.ai2048.events.IGameListener;
+
+/**
+ * Collects move latency, throughput and game result distributions.
+ *
+ * Every method is thread safe, so one instance can listen to the games of
+ * every tournament worker and be read by a MetricsReporter at the same time.
+ * toString covers moves and turns only. Tournaments already summarize the
+ * results of their games through GameStatistics, and getResults has them
+ * here.
+ */
+public class GameMetrics implements IGameListener {
+
+	private final Histogram moveNanos = new Histogram();
+	private final Histogram turns = new Histogram();
+	private final GameResults results = new GameResults();
+	private volatile long startNanos = System.nanoTime();
+
+	@Override
+	public void gameStarted(long seed, int dim, int maxPower) {
+	}
+
+	@Override
+	public void turnPlayed(int turn, Direction move, long nanos, int score) {
+		moveNanos.record(nanos);
+	}
+
+	@Override
+	public void tileSpawned(int index, int value) {
+	}
+
+	@Override
+	public void gameEnded(int turns, int score, int maxTile, boolean won) {
+		this.turns.record(turns);
+		results.record(won, score, maxTile);
+	}
+
+	/**
+	 * Forgets everything recorded so far and restarts the throughput clock
+	 */
+	public void reset() {
+		moveNanos.reset();
+		turns.reset();
+		results.reset();
+		startNanos = System.nanoTime();
+	}
+
+	/**
+	 * @return the time the player took to decide each move, from the
+	 * decide or decideAsync call until the move was applied, in nanoseconds
+	 */
+	public Histogram getMoveNanos() {
+		return moveNanos;
+	}
+
+	/**
+	 * @return the number of turns in each finished game
+	 */
+	public Histogram getTurns() {
+		return turns;
+	}
+
+	/**
+	 * @return the wins, final scores and highest tiles of the finished games
+	 */
+	public GameResults getResults() {
+		return results;
+	}
+
+	/**
+	 * @return the final score of each finished game
+	 */
+	public Histogram getScores() {
+		return results.getScores();
+	}
+
+	/**
+	 * @param tile A power of 2
+	 * @return the number of finished games whose highest tile was tile
+	 */
+	public long getMaxTileCount(int tile) {
+		return results.getMaxTileCount(tile);
+	}
+
+	/**
+	 * @return the number of moves made
+	 */
+	public long getMoves() {
+		return moveNanos.getCount();
+	}
+
+	/**
+	 * @return the number of games finished
+	 */
+	public long getGames() {
+		return results.getGames();
+	}
+
+	/**
+	 * @return the number of games won
+	 */
+	public long getWins() {
+		return results.getWins();
+	}
+
+	/**
+	 * @return the moves made per second of wall clock time since creation or
+	 * the last reset
+	 */
+	public double getMovesPerSecond() {
+		long elapsed = System.nanoTime() - startNanos;
+		return elapsed <= 0 ? 0 : getMoves() * 1e9 / elapsed;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append(String.format("moves %d (%.0f/s), latency p50 %s p99 %s max %s%n",
+				getMoves(), getMovesPerSecond(),
+				formatNanos(moveNanos.getPercentile(50)),
+				formatNanos(moveNanos.getPercentile(99)),
+				formatNanos(moveNanos.getMax())));
+		sb.append(String.format("games %d, turns p50 %d max %d",
+				getGames(), turns.getPercentile(50), turns.getMax()));
+		return sb.toString();
+	}
+
+	private static String formatNanos(long nanos) {
+		if (nanos < TimeUnit.MICROSECONDS.toNanos(10)) {
+			return nanos + "ns";
+		}
+		if (nanos < TimeUnit.MILLISECONDS.toNanos(10)) {
+			return TimeUnit.NANOSECONDS.toMicros(nanos) + "us";
+		}
+		return TimeUnit.NANOSECONDS.toMillis(nanos) + "ms";
+	}
+}
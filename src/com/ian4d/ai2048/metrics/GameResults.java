@@ -0,0 +1,114 @@
+package com.ian4d.ai2048.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts finished games by result: wins, final scores and highest tiles.
+ *
+ * Recording is lock free and safe from any number of threads, like
+ * Histogram, so GameMetrics can share one instance between every worker
+ * while GameStatistics keeps one per thread and merges them.
+ */
+public class GameResults {
+
+	private final AtomicLong wins = new AtomicLong();
+	private final Histogram scores = new Histogram();
+	// Games by the exponent of their highest tile
+	private final AtomicLongArray maxTiles = new AtomicLongArray(Integer.SIZE);
+
+	/**
+	 * Records a finished game
+	 * @param won true if the game was won
+	 * @param score The final score
+	 * @param maxTile The highest tile on the final board
+	 */
+	public void record(boolean won, int score, int maxTile) {
+		if (won) {
+			wins.incrementAndGet();
+		}
+		scores.record(score);
+		maxTiles.incrementAndGet(exponentOf(maxTile));
+	}
+
+	/**
+	 * Adds every game counted by another instance to this one
+	 * @param other The results to merge
+	 */
+	public void merge(GameResults other) {
+		wins.addAndGet(other.wins.get());
+		scores.merge(other.scores);
+		for (int i = 0; i < maxTiles.length(); i++) {
+			long count = other.maxTiles.get(i);
+			if (count != 0) {
+				maxTiles.addAndGet(i, count);
+			}
+		}
+	}
+
+	/**
+	 * Forgets every game counted so far
+	 */
+	public void reset() {
+		wins.set(0);
+		scores.reset();
+		for (int i = 0; i < maxTiles.length(); i++) {
+			maxTiles.set(i, 0);
+		}
+	}
+
+	/**
+	 * @return the number of games
+	 */
+	public long getGames() {
+		return scores.getCount();
+	}
+
+	/**
+	 * @return the number of games won
+	 */
+	public long getWins() {
+		return wins.get();
+	}
+
+	/**
+	 * @return the final score of each game
+	 */
+	public Histogram getScores() {
+		return scores;
+	}
+
+	/**
+	 * @param tile A power of 2
+	 * @return the number of games whose highest tile was tile
+	 */
+	public long getMaxTileCount(int tile) {
+		return maxTiles.get(exponentOf(tile));
+	}
+
+	/**
+	 * Appends one line per highest tile reached, highest first
+	 */
+	void appendMaxTiles(StringBuilder sb) {
+		long games = getGames();
+		for (int i = maxTiles.length() - 1; i >= 0; i--) {
+			long count = maxTiles.get(i);
+			if (count > 0) {
+				sb.append(String.format("%n  max tile %d: %d (%.1f%%)", i == 0 ? 0 : 1 << i, count, 100.0 * count / games));
+			}
+		}
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append(String.format("games %d, wins %d, score p50 %d p99 %d max %d",
+				getGames(), getWins(), scores.getPercentile(50), scores.getPercentile(99), scores.getMax()));
+		appendMaxTiles(sb);
+		return sb.toString();
+	}
+
+	private static int exponentOf(int tile) {
+		return tile <= 1 ? 0 : 31 - Integer.numberOfLeadingZeros(tile);
+	}
+}
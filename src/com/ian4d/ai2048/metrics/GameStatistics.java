@@ -0,0 +1,181 @@
+package com.ian4d.ai2048.metrics;
+
+/**
+ * Streaming statistics over finished games: win rate with a confidence
+ * interval, score mean and variance, score percentiles, the distribution of
+ * highest tiles and the rate games finish at.
+ *
+ * An instance is meant to be filled by one thread without any locking. Each
+ * thread keeps its own and the results are merged once the threads are done,
+ * or copied from the owning thread to report progress while they run. The
+ * score mean and variance are kept with Welford's method and merged with
+ * Chan's formula, so they stay accurate over billions of games.
+ */
+public class GameStatistics {
+
+	// z for a two sided 95% confidence interval
+	public static final double Z_95 = 1.959964;
+
+	private long games = 0;
+	private double meanScore = 0;
+	// Sum of squared differences from the mean score
+	private double scoreSquares = 0;
+	private final GameResults results = new GameResults();
+	private long startNanos = System.nanoTime();
+	private long lastNanos = startNanos;
+
+	/**
+	 * Records a finished game
+	 * @param won true if the game was won
+	 * @param score The final score
+	 * @param maxTile The highest tile on the final board
+	 */
+	public void addGame(boolean won, int score, int maxTile) {
+		games++;
+		double delta = score - meanScore;
+		meanScore += delta / games;
+		scoreSquares += delta * (score - meanScore);
+		results.record(won, score, maxTile);
+		lastNanos = System.nanoTime();
+	}
+
+	/**
+	 * Adds the games recorded by another instance to this one. The other
+	 * instance must not be changing while it is merged.
+	 * @param other The statistics to merge
+	 */
+	public void merge(GameStatistics other) {
+		if (other.games == 0) {
+			return;
+		}
+		long total = games + other.games;
+		double delta = other.meanScore - meanScore;
+		scoreSquares += other.scoreSquares + delta * delta * games / total * other.games;
+		meanScore += delta * other.games / total;
+		games = total;
+		results.merge(other.results);
+		// Threads run side by side, so the rate is over the time they span
+		if (games == other.games) {
+			startNanos = other.startNanos;
+			lastNanos = other.lastNanos;
+		} else {
+			startNanos = Math.min(startNanos, other.startNanos);
+			lastNanos = Math.max(lastNanos, other.lastNanos);
+		}
+	}
+
+	/**
+	 * @return an independent copy, for the owning thread to hand to others
+	 */
+	public GameStatistics copy() {
+		GameStatistics copy = new GameStatistics();
+		copy.merge(this);
+		return copy;
+	}
+
+	/**
+	 * @return the number of games
+	 */
+	public long getGames() {
+		return games;
+	}
+
+	/**
+	 * @return the number of games won
+	 */
+	public long getWins() {
+		return results.getWins();
+	}
+
+	/**
+	 * @return the fraction of games won, or 0 if there are none
+	 */
+	public double getWinRate() {
+		return games == 0 ? 0 : (double) results.getWins() / games;
+	}
+
+	/**
+	 * @param z The number of standard deviations to cover, Z_95 for 95%
+	 * @return the lower end of the Wilson score interval for the win rate
+	 */
+	public double getWinRateLower(double z) {
+		return games == 0 ? 0 : Math.max(0, winRateCenter(z) - winRateMargin(z));
+	}
+
+	/**
+	 * @param z The number of standard deviations to cover, Z_95 for 95%
+	 * @return the upper end of the Wilson score interval for the win rate
+	 */
+	public double getWinRateUpper(double z) {
+		return games == 0 ? 1 : Math.min(1, winRateCenter(z) + winRateMargin(z));
+	}
+
+	/**
+	 * @return the mean final score
+	 */
+	public double getMeanScore() {
+		return meanScore;
+	}
+
+	/**
+	 * @return the sample variance of the final scores, or 0 for fewer than 2
+	 * games
+	 */
+	public double getScoreVariance() {
+		return games < 2 ? 0 : scoreSquares / (games - 1);
+	}
+
+	/**
+	 * @return the sample standard deviation of the final scores
+	 */
+	public double getScoreStandardDeviation() {
+		return Math.sqrt(getScoreVariance());
+	}
+
+	/**
+	 * @param percentile The percentile to find, from 0 to 100
+	 * @return the final score at the percentile, to within about 3%
+	 */
+	public long getScorePercentile(double percentile) {
+		return results.getScores().getPercentile(percentile);
+	}
+
+	/**
+	 * @param tile A power of 2
+	 * @return the number of games whose highest tile was tile
+	 */
+	public long getMaxTileCount(int tile) {
+		return results.getMaxTileCount(tile);
+	}
+
+	/**
+	 * @return the games finished per second, from when the first instance
+	 * merged into this one was created until its last game
+	 */
+	public double getGamesPerSecond() {
+		long elapsed = lastNanos - startNanos;
+		return elapsed <= 0 ? 0 : games * 1e9 / elapsed;
+	}
+
+	private double winRateCenter(double z) {
+		double z2 = z * z / games;
+		return (getWinRate() + z2 / 2) / (1 + z2);
+	}
+
+	private double winRateMargin(double z) {
+		double p = getWinRate();
+		double z2 = z * z / games;
+		return z / (1 + z2) * Math.sqrt(p * (1 - p) / games + z2 / (4 * games));
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append(String.format("games %d (%.1f/s), win rate %.3f [%.3f, %.3f], score mean %.1f sd %.1f p50 %d p90 %d p99 %d",
+				games, getGamesPerSecond(), getWinRate(), getWinRateLower(Z_95), getWinRateUpper(Z_95),
+				meanScore, getScoreStandardDeviation(),
+				getScorePercentile(50), getScorePercentile(90), getScorePercentile(99)));
+		results.appendMaxTiles(sb);
+		return sb.toString();
+	}
+}
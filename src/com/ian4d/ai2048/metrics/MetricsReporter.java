@@ -0,0 +1,65 @@
+package com.ian4d.ai2048.metrics;
+
+import java.io.Closeable;
+import java.io.PrintStream;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prints a summary of a GameMetrics on a background thread at a fixed period.
+ */
+public class MetricsReporter implements Closeable {
+
+	private final GameMetrics metrics;
+	private final PrintStream out;
+	private final ScheduledExecutorService scheduler;
+	private long lastMoves = 0;
+	private long lastNanos = System.nanoTime();
+
+	/**
+	 * Starts reporting
+	 * @param metrics The metrics to summarize
+	 * @param out Where summaries are printed
+	 * @param periodMillis The time between summaries
+	 */
+	public MetricsReporter(GameMetrics metrics, PrintStream out, long periodMillis) {
+		this.metrics = metrics;
+		this.out = out;
+		this.scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "metrics-reporter");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		scheduler.scheduleAtFixedRate(new Runnable() {
+			@Override
+			public void run() {
+				report();
+			}
+		}, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Prints a summary now, including the move rate since the last summary
+	 */
+	public synchronized void report() {
+		long now = System.nanoTime();
+		long moves = metrics.getMoves();
+		double rate = now == lastNanos ? 0 : (moves - lastMoves) * 1e9 / (now - lastNanos);
+		lastMoves = moves;
+		lastNanos = now;
+		out.println(String.format("[%.0f moves/s] %s", rate, metrics));
+	}
+
+	/**
+	 * Stops reporting
+	 */
+	@Override
+	public void close() {
+		scheduler.shutdown();
+	}
+}
@@ -1,12 +1,13 @@
 package com.ian4d.ai2048.players;
 
-import com.ian4d.ai2048.Board;
+import com.ian4d.ai2048.Direction;
+import com.ian4d.ai2048.IBoardView;
 
-public class AllRight implements IPlayer {
+public class AllRight extends DecisionPlayer {
 
 	@Override
-	public void makeMove(Board board) {
-		board.moveRight();
+	public Direction decide(IBoardView board) {
+		return Direction.RIGHT;
 	}
 
 }
@@ -0,0 +1,30 @@
+package com.ian4d.ai2048.players;
+
+/**
+ * Creates players through the public no argument constructor of a class
+ */
+public class ClassPlayerFactory implements IPlayerFactory {
+
+	private final Class<? extends IPlayer> playerClass;
+
+	/**
+	 * @param playerClass The player class to instantiate for every game
+	 */
+	public ClassPlayerFactory(Class<? extends IPlayer> playerClass) {
+		this.playerClass = playerClass;
+	}
+
+	@Override
+	public IPlayer createPlayer() {
+		try {
+			return playerClass.getDeclaredConstructor().newInstance();
+		} catch (ReflectiveOperationException ex) {
+			throw new IllegalStateException("Cannot create " + playerClass.getName(), ex);
+		}
+	}
+
+	@Override
+	public String getPlayerName() {
+		return playerClass.getSimpleName();
+	}
+}
@@ -0,0 +1,38 @@
+package com.ian4d.ai2048.players;
+
+import java.util.concurrent.CompletableFuture;
+
+import com.ian4d.ai2048.Board;
+import com.ian4d.ai2048.Direction;
+import com.ian4d.ai2048.IBoardView;
+
+/**
+ * Base class for decision players. The asynchronous and batched variants
+ * call decide on the calling thread, one board at a time.
+ *
+ * Decision players are also plain players, so they can be created by an
+ * IPlayerFactory and passed anywhere an IPlayer is expected. Games notice
+ * that they decide rather than move and apply the move themselves.
+ */
+public abstract class DecisionPlayer implements IDecisionPlayer, IPlayer {
+
+	@Override
+	public CompletableFuture<Direction> decideAsync(IBoardView board) {
+		return CompletableFuture.completedFuture(decide(board));
+	}
+
+	@Override
+	public void decideAll(IBoardView[] boards, int count, Direction[] moves) {
+		for (int i = 0; i < count; i++) {
+			moves[i] = decide(boards[i]);
+		}
+	}
+
+	@Override
+	public void makeMove(Board board) {
+		Direction move = decide(board);
+		if (move != null) {
+			move.apply(board);
+		}
+	}
+}
@@ -0,0 +1,295 @@
+package com.ian4d.ai2048.players;
+
+import java.util.concurrent.TimeUnit;
+
+import com.ian4d.ai2048.BitBoard;
+import com.ian4d.ai2048.Direction;
+import com.ian4d.ai2048.Game;
+import com.ian4d.ai2048.IBoardView;
+
+/**
+ * Depth limited expectimax search over packed 4x4 boards.
+ *
+ * Max nodes try each move, chance nodes average over every empty tile being
+ * filled with a 2 or a 4 using the same odds as Game.startNextTurn. Chance
+ * node values are cached in a transposition table, and branches that are
+ * too unlikely to matter are cut off and evaluated directly.
+ *
+ * Given a time budget, the search deepens one ply at a time and tries the
+ * moves in the order the previous iteration ranked them, so the previous
+ * best move is always searched first. An iteration that runs past the
+ * budget stops, but the moves it finished were searched deeper than any
+ * before. The best of them is played, which is the previous best unless a
+ * finished move beat it. If not even the previous best finished, the best
+ * move of the last complete iteration is played.
+ */
+public class ExpectimaxPlayer extends DecisionPlayer {
+
+	public static final int DEFAULT_DEPTH = 2;
+	public static final int DEFAULT_TABLE_BITS = 20;
+
+	// Branches reached with a lower probability than this are evaluated directly
+	private static final float PROBABILITY_CUTOFF = 0.0001f;
+
+	// Number of chance nodes searched between looks at the clock
+	private static final int CLOCK_INTERVAL = 1024;
+
+	private static final Direction[] DIRECTIONS = Direction.values();
+
+	private final int depth;
+	private final long budgetNanos;
+	private final ITranspositionTable table;
+	private final boolean agesTable;
+	private final RowHeuristic heuristic;
+
+	// Root moves, best first as ranked by the last complete iteration
+	private final Direction[] order = Direction.values();
+	private final float[] values = new float[order.length];
+
+	private long deadline;
+	private int untilClockCheck;
+	private boolean timedOut;
+
+	private long nodes = 0;
+	private long searchNanos = 0;
+	private long searches = 0;
+	private long depthTotal = 0;
+
+	public ExpectimaxPlayer() {
+		this(DEFAULT_DEPTH, DEFAULT_TABLE_BITS);
+	}
+
+	/**
+	 * @param depth The number of tile spawns to look ahead
+	 * @param tableBits The transposition table holds 2^tableBits entries
+	 */
+	public ExpectimaxPlayer(int depth, int tableBits) {
+		this(depth, tableBits, RowHeuristic.getDefault());
+	}
+
+	/**
+	 * @param depth The number of tile spawns to look ahead
+	 * @param tableBits The transposition table holds 2^tableBits entries
+	 * @param heuristic Scores the positions at the edge of the search
+	 */
+	public ExpectimaxPlayer(int depth, int tableBits, RowHeuristic heuristic) {
+		this(createConfig(depth, new TranspositionTable(tableBits), true, heuristic));
+	}
+
+	/**
+	 * @param depth The number of tile spawns to look ahead
+	 * @param table Caches chance node values, pass a SharedTranspositionTable
+	 * to share one cache between players on different threads. The player
+	 * never ages it, that is left to whoever shares it.
+	 * @param heuristic Scores the positions at the edge of the search
+	 */
+	public ExpectimaxPlayer(int depth, ITranspositionTable table, RowHeuristic heuristic) {
+		this(createConfig(depth, table, false, heuristic));
+	}
+
+	/**
+	 * @param config The depth, time budget, cache and heuristic to search with
+	 */
+	public ExpectimaxPlayer(PlayerConfig config) {
+		this.depth = config.getDepth();
+		this.budgetNanos = TimeUnit.MILLISECONDS.toNanos(config.getTimeBudgetMillis());
+		this.table = config.getTable() != null ? config.getTable() : new TranspositionTable(DEFAULT_TABLE_BITS);
+		// Only the owner of a table knows when a batch of searches starts
+		this.agesTable = config.getTable() == null || config.isAgesTable();
+		this.heuristic = config.getHeuristic();
+	}
+
+	@Override
+	public Direction decide(IBoardView board) {
+		return findBestMove(BitBoard.pack(board));
+	}
+
+	/**
+	 * Searches a packed board for the move with the highest expected value
+	 * @param board The packed board
+	 * @return The best move, or null if no move changes the board
+	 */
+	public Direction findBestMove(long board) {
+		long start = System.nanoTime();
+		if (agesTable) {
+			table.age();
+		}
+		Direction best = null;
+		int reached = 0;
+
+		// The first iteration always runs to the end so there is a move to play
+		deadline = Long.MAX_VALUE;
+		long iterationStart = start;
+		for (int iteration = budgetNanos > 0 ? Math.min(1, depth) : depth; iteration <= depth; iteration++) {
+			Direction move = searchRoot(board, iteration);
+			if (timedOut) {
+				// The moves that finished were searched a ply deeper
+				if (move != null) {
+					best = move;
+				}
+				break;
+			}
+			best = move;
+			reached = iteration;
+			if (best == null) {
+				break;
+			}
+
+			// Each ply costs more than the last, so don't start one that
+			// has less time left than the previous ply took
+			long now = System.nanoTime();
+			deadline = start + budgetNanos;
+			if (deadline - now < now - iterationStart) {
+				break;
+			}
+			iterationStart = now;
+		}
+		searches++;
+		depthTotal += reached;
+		searchNanos += System.nanoTime() - start;
+		return best;
+	}
+
+	/**
+	 * @return the number of search nodes visited per second of search time
+	 */
+	public double getNodesPerSecond() {
+		return searchNanos == 0 ? 0 : nodes * 1e9 / searchNanos;
+	}
+
+	/**
+	 * @return the mean depth of the deepest complete search per move
+	 */
+	public double getMeanDepth() {
+		return searches == 0 ? 0 : (double) depthTotal / searches;
+	}
+
+	/**
+	 * @return the fraction of transposition table lookups that hit
+	 */
+	public double getCacheHitRate() {
+		return table.getHitRate();
+	}
+
+	/**
+	 * @return the number of search nodes visited
+	 */
+	public long getNodes() {
+		return nodes;
+	}
+
+	/**
+	 * Clears the transposition table and search counters. A shared table is
+	 * cleared for every player using it.
+	 */
+	public void reset() {
+		table.clear();
+		nodes = 0;
+		searchNanos = 0;
+		searches = 0;
+		depthTotal = 0;
+	}
+
+	private static PlayerConfig createConfig(int depth, ITranspositionTable table, boolean agesTable, RowHeuristic heuristic) {
+		PlayerConfig config = new PlayerConfig();
+		config.setDepth(depth);
+		config.setTable(table);
+		config.setAgesTable(agesTable);
+		config.setHeuristic(heuristic);
+		return config;
+	}
+
+	/**
+	 * Searches every legal move to depth, in the order the last iteration
+	 * ranked them, then ranks them again by the values found if the search
+	 * is time budgeted
+	 * @return The best move, or null if no move changes the board. If the
+	 * search timed out, the best of the moves that finished, or null if none
+	 * did.
+	 */
+	private Direction searchRoot(long board, int depth) {
+		timedOut = false;
+		untilClockCheck = CLOCK_INTERVAL;
+		Direction best = null;
+		float bestValue = Float.NEGATIVE_INFINITY;
+		for (int i = 0; i < order.length; i++) {
+			long next = order[i].apply(board);
+			values[i] = next == board ? Float.NEGATIVE_INFINITY : chanceNode(next, depth, 1f);
+			if (timedOut) {
+				return best;
+			}
+			if (values[i] > bestValue) {
+				bestValue = values[i];
+				best = order[i];
+			}
+		}
+
+		// Fixed depth searches keep the moves in their natural order so
+		// ties always break the same way. Insertion sort keeps tied moves in
+		// their previous order.
+		for (int i = 1; i < order.length && budgetNanos > 0; i++) {
+			Direction direction = order[i];
+			float value = values[i];
+			int j = i - 1;
+			for (; j >= 0 && values[j] < value; j--) {
+				order[j + 1] = order[j];
+				values[j + 1] = values[j];
+			}
+			order[j + 1] = direction;
+			values[j + 1] = value;
+		}
+		return best;
+	}
+
+	private float chanceNode(long board, int depth, float probability) {
+		nodes++;
+		if (--untilClockCheck <= 0) {
+			untilClockCheck = CLOCK_INTERVAL;
+			timedOut = System.nanoTime() > deadline;
+		}
+		if (timedOut) {
+			return 0f;
+		}
+		if (depth <= 0 || probability < PROBABILITY_CUTOFF) {
+			return heuristic.evaluate(board);
+		}
+
+		float cached = table.get(board, depth);
+		if (!Float.isNaN(cached)) {
+			return cached;
+		}
+
+		int empty = BitBoard.countEmpty(board);
+		float twoProbability = (float) Game.TWO_PROBABILITY;
+		float total = 0f;
+		for (int i = 0; i < BitBoard.DIM * BitBoard.DIM; i++) {
+			if (((board >>> (4 * i)) & 0xF) != 0) {
+				continue;
+			}
+			long two = board | (1L << (4 * i));
+			long four = board | (2L << (4 * i));
+			total += twoProbability * maxNode(two, depth, probability * twoProbability / empty);
+			total += (1 - twoProbability) * maxNode(four, depth, probability * (1 - twoProbability) / empty);
+		}
+		float value = total / empty;
+		// Values below an abandoned search are incomplete, so keep them out
+		// of the table
+		if (!timedOut) {
+			table.put(board, depth, value);
+		}
+		return value;
+	}
+
+	private float maxNode(long board, int depth, float probability) {
+		nodes++;
+		float best = Float.NEGATIVE_INFINITY;
+		for (Direction direction : DIRECTIONS) {
+			long next = direction.apply(board);
+			if (next != board) {
+				best = Math.max(best, chanceNode(next, depth - 1, probability));
+			}
+		}
+		// No move changes the board, so the game is lost
+		return best == Float.NEGATIVE_INFINITY ? heuristic.getLossValue() : best;
+	}
+}
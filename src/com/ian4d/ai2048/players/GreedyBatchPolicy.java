@@ -0,0 +1,35 @@
+package com.ian4d.ai2048.players;
+
+import com.ian4d.ai2048.BitBoard;
+import com.ian4d.ai2048.Direction;
+
+/**
+ * Plays the move that leaves the most empty tiles on each board, preferring
+ * moves in Direction order on a tie. Moves that don't change the board are
+ * never chosen unless nothing else is legal.
+ */
+public class GreedyBatchPolicy implements IBatchPolicy {
+
+	private static final Direction[] DIRECTIONS = Direction.values();
+
+	@Override
+	public void chooseMoves(long[] boards, int count, byte[] moves) {
+		for (int i = 0; i < count; i++) {
+			long board = boards[i];
+			int best = 0;
+			int bestEmpty = -1;
+			for (Direction direction : DIRECTIONS) {
+				long next = direction.apply(board);
+				if (next == board) {
+					continue;
+				}
+				int empty = BitBoard.countEmpty(next);
+				if (empty > bestEmpty) {
+					bestEmpty = empty;
+					best = direction.ordinal();
+				}
+			}
+			moves[i] = (byte) best;
+		}
+	}
+}
@@ -0,0 +1,46 @@
+package com.ian4d.ai2048.players;
+
+import com.ian4d.ai2048.BitBoard;
+import com.ian4d.ai2048.Direction;
+import com.ian4d.ai2048.IBoardView;
+
+/**
+ * Plays the move whose result scores best under a RowHeuristic, without
+ * looking at the tiles that spawn afterwards.
+ */
+public class HeuristicPlayer extends DecisionPlayer {
+
+	private static final Direction[] DIRECTIONS = Direction.values();
+
+	private final RowHeuristic heuristic;
+
+	public HeuristicPlayer() {
+		this(RowHeuristic.getDefault());
+	}
+
+	/**
+	 * @param heuristic Scores the board left by each move
+	 */
+	public HeuristicPlayer(RowHeuristic heuristic) {
+		this.heuristic = heuristic;
+	}
+
+	@Override
+	public Direction decide(IBoardView board) {
+		long packed = BitBoard.pack(board);
+		Direction best = null;
+		float bestValue = Float.NEGATIVE_INFINITY;
+		for (Direction direction : DIRECTIONS) {
+			long next = direction.apply(packed);
+			if (next == packed) {
+				continue;
+			}
+			float value = heuristic.evaluate(next);
+			if (value > bestValue) {
+				bestValue = value;
+				best = direction;
+			}
+		}
+		return best;
+	}
+}
@@ -0,0 +1,133 @@
+package com.ian4d.ai2048.players;
+
+/**
+ * Weights of the terms a RowHeuristic scores each row with.
+ *
+ * The defaults are the ones ExpectimaxPlayer has always used, which reward
+ * empty tiles and merges, and penalize rows that aren't monotonic or hold a
+ * lot of value. Smoothness is off by default.
+ */
+public class HeuristicWeights {
+
+	private float baseScore = 200000f;
+	private float emptyWeight = 270f;
+	private float mergeWeight = 700f;
+	private float monotonicityWeight = 47f;
+	private float monotonicityPower = 4f;
+	private float sumWeight = 11f;
+	private float sumPower = 3.5f;
+	private float smoothnessWeight = 0f;
+
+	/**
+	 * @return the score every board starts from, spread evenly over its rows
+	 * and columns
+	 */
+	public float getBaseScore() {
+		return baseScore;
+	}
+
+	/**
+	 * @param baseScore the baseScore to set
+	 */
+	public void setBaseScore(float baseScore) {
+		this.baseScore = baseScore;
+	}
+
+	/**
+	 * @return the reward for each empty tile
+	 */
+	public float getEmptyWeight() {
+		return emptyWeight;
+	}
+
+	/**
+	 * @param emptyWeight the emptyWeight to set
+	 */
+	public void setEmptyWeight(float emptyWeight) {
+		this.emptyWeight = emptyWeight;
+	}
+
+	/**
+	 * @return the reward for each tile that could merge with a neighbour
+	 */
+	public float getMergeWeight() {
+		return mergeWeight;
+	}
+
+	/**
+	 * @param mergeWeight the mergeWeight to set
+	 */
+	public void setMergeWeight(float mergeWeight) {
+		this.mergeWeight = mergeWeight;
+	}
+
+	/**
+	 * @return the penalty for tiles that break the order of a row
+	 */
+	public float getMonotonicityWeight() {
+		return monotonicityWeight;
+	}
+
+	/**
+	 * @param monotonicityWeight the monotonicityWeight to set
+	 */
+	public void setMonotonicityWeight(float monotonicityWeight) {
+		this.monotonicityWeight = monotonicityWeight;
+	}
+
+	/**
+	 * @return the power exponents are raised to before comparing their order
+	 */
+	public float getMonotonicityPower() {
+		return monotonicityPower;
+	}
+
+	/**
+	 * @param monotonicityPower the monotonicityPower to set
+	 */
+	public void setMonotonicityPower(float monotonicityPower) {
+		this.monotonicityPower = monotonicityPower;
+	}
+
+	/**
+	 * @return the penalty for the value held in a row
+	 */
+	public float getSumWeight() {
+		return sumWeight;
+	}
+
+	/**
+	 * @param sumWeight the sumWeight to set
+	 */
+	public void setSumWeight(float sumWeight) {
+		this.sumWeight = sumWeight;
+	}
+
+	/**
+	 * @return the power exponents are raised to before summing
+	 */
+	public float getSumPower() {
+		return sumPower;
+	}
+
+	/**
+	 * @param sumPower the sumPower to set
+	 */
+	public void setSumPower(float sumPower) {
+		this.sumPower = sumPower;
+	}
+
+	/**
+	 * @return the penalty for each step in exponent between neighbouring tiles
+	 */
+	public float getSmoothnessWeight() {
+		return smoothnessWeight;
+	}
+
+	/**
+	 * @param smoothnessWeight the smoothnessWeight to set
+	 */
+	public void setSmoothnessWeight(float smoothnessWeight) {
+		this.smoothnessWeight = smoothnessWeight;
+	}
+}
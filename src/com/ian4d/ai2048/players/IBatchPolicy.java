@@ -0,0 +1,18 @@
+package com.ian4d.ai2048.players;
+
+/**
+ * Chooses one move for each of many games at once.
+ *
+ * Used by BatchSimulator, which calls it once per step for every game in
+ * the batch instead of once per game.
+ */
+public interface IBatchPolicy {
+
+	/**
+	 * @param boards The packed 4x4 boards of the games, see BitBoard
+	 * @param count The number of games, the boards from index count on are
+	 * unused
+	 * @param moves Filled with the Direction ordinal to play on each board
+	 */
+	void chooseMoves(long[] boards, int count, byte[] moves);
+}
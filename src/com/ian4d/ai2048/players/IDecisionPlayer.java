@@ -0,0 +1,40 @@
+package com.ian4d.ai2048.players;
+
+import java.util.concurrent.CompletableFuture;
+
+import com.ian4d.ai2048.Direction;
+import com.ian4d.ai2048.IBoardView;
+
+/**
+ * A player that chooses moves instead of making them. The game applies the
+ * chosen move, so the player never needs write access to the board.
+ *
+ * Extend DecisionPlayer to get the asynchronous and batched variants for
+ * free, and override them when a player can do better, e.g. by searching on
+ * its own threads or deciding many boards in one pass.
+ */
+public interface IDecisionPlayer {
+
+	/**
+	 * @param board The board to move on
+	 * @return The move to make, or null to pass
+	 */
+	Direction decide(IBoardView board);
+
+	/**
+	 * Starts deciding a move, for callers that keep several games in flight
+	 * while an expensive player thinks. The board must not change until the
+	 * future completes, unless the player documents that it copies it first.
+	 * @param board The board to move on
+	 * @return The move to make, or null to pass
+	 */
+	CompletableFuture<Direction> decideAsync(IBoardView board);
+
+	/**
+	 * Decides a move for each of several boards in one call
+	 * @param boards The boards to move on
+	 * @param count The number of boards, starting from the first
+	 * @param moves Receives the move for each board, null to pass
+	 */
+	void decideAll(IBoardView[] boards, int count, Direction[] moves);
+}
@@ -0,0 +1,19 @@
+package com.ian4d.ai2048.players;
+
+/**
+ * Creates a fresh player for every game, so players can keep per game state
+ */
+public interface IPlayerFactory {
+	IPlayer createPlayer();
+
+	/**
+	 * Factories that know their player class should report its name. The
+	 * default falls back on the factory's own class, whose simple name is
+	 * empty for anonymous classes and lambdas.
+	 * @return the name results for the players are reported under
+	 */
+	default String getPlayerName() {
+		String name = getClass().getSimpleName();
+		return name.isEmpty() ? getClass().getName() : name;
+	}
+}
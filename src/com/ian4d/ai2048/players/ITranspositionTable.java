@@ -0,0 +1,57 @@
+package com.ian4d.ai2048.players;
+
+/**
+ * A cache of searched positions, keyed by packed 4x4 board
+ */
+public interface ITranspositionTable {
+
+	/**
+	 * Looks up a board searched to at least depth
+	 * @param board The packed board
+	 * @param depth The depth the caller is about to search
+	 * @return The cached value, or NaN if there isn't a usable entry
+	 */
+	float get(long board, int depth);
+
+	/**
+	 * Stores the value of a board searched to depth
+	 * @param board The packed board
+	 * @param depth The depth the board was searched to
+	 * @param value The value found
+	 */
+	void put(long board, int depth, float value);
+
+	/**
+	 * Marks the start of a new search. Entries stored before it are the
+	 * first to be replaced. A table shared between threads should be aged by
+	 * its owner, for example once per game or batch of games, rather than by
+	 * each search.
+	 */
+	void age();
+
+	/**
+	 * Removes every entry and resets the counters
+	 */
+	void clear();
+
+	/**
+	 * @return the number of lookups that found a usable entry
+	 */
+	long getHits();
+
+	/**
+	 * @return the number of lookups that didn't find a usable entry
+	 */
+	long getMisses();
+
+	/**
+	 * @return the number of lookups that found only other boards where the
+	 * board would be stored
+	 */
+	long getCollisions();
+
+	/**
+	 * @return the fraction of lookups that found a usable entry
+	 */
+	double getHitRate();
+}
@@ -0,0 +1,79 @@
+package com.ian4d.ai2048.players;
+
+import com.ian4d.ai2048.BitBoard;
+import com.ian4d.ai2048.Board;
+import com.ian4d.ai2048.Direction;
+import com.ian4d.ai2048.Game;
+import com.ian4d.ai2048.IBoardView;
+import com.ian4d.ai2048.SplittableRandomSource;
+
+/**
+ * Lets a player that moves the board itself be used as a decision player.
+ *
+ * The wrapped player moves a private copy of the board, and the move it made
+ * is read back from Board.getLastMove. A player that moves more than once in
+ * a single turn is credited with its last move only, and one whose moves
+ * change nothing passes.
+ */
+public class LegacyPlayerAdapter extends DecisionPlayer {
+
+	/**
+	 * @param player Any player
+	 * @return player itself if it already decides moves, otherwise an
+	 * adapter around it
+	 */
+	public static IDecisionPlayer adapt(IPlayer player) {
+		if (player instanceof IDecisionPlayer) {
+			return (IDecisionPlayer) player;
+		}
+		return new LegacyPlayerAdapter(player);
+	}
+
+	private final IPlayer player;
+	private Board scratch;
+	private int[][] tiles;
+
+	/**
+	 * @param player The player to wrap
+	 */
+	public LegacyPlayerAdapter(IPlayer player) {
+		this.player = player;
+	}
+
+	@Override
+	public Direction decide(IBoardView board) {
+		copy(board);
+		scratch.clearLastMove();
+		player.makeMove(scratch);
+		return scratch.getLastMove();
+	}
+
+	/**
+	 * @return the wrapped player
+	 */
+	public IPlayer getPlayer() {
+		return player;
+	}
+
+	/**
+	 * Copies board onto the scratch board, creating it on first use or when
+	 * the board size changes
+	 */
+	private void copy(IBoardView board) {
+		int dim = board.getDim();
+		if (scratch == null || scratch.getDim() != dim || scratch.getMaxPower() != board.getMaxPower()) {
+			scratch = Game.createBoard(dim, board.getMaxPower(), new SplittableRandomSource());
+			tiles = new int[dim][dim];
+		}
+		if (board instanceof BitBoard && scratch instanceof BitBoard) {
+			((BitBoard) scratch).setPackedBoard(((BitBoard) board).getPackedBoard());
+			return;
+		}
+		for (int i = 0; i < dim; i++) {
+			for (int j = 0; j < dim; j++) {
+				tiles[i][j] = board.getTileValue(i, j);
+			}
+		}
+		scratch.setTiles(tiles);
+	}
+}
@@ -0,0 +1,173 @@
+package com.ian4d.ai2048.players;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The bucket layout and replacement policy shared by the lock-free tables.
+ *
+ * Entries are two longs each: the entry's data (value, depth and generation)
+ * and its board XORed with that data and the table's key. Entries written
+ * under another key never match, so tables whose values were computed
+ * differently can't read each other's entries. Subclasses only decide where
+ * the longs are stored, and must read and write each one atomically.
+ */
+abstract class LocklessTranspositionTable implements ITranspositionTable {
+
+	static final int WAYS = 2;
+
+	private static final int DEPTH_SHIFT = 32;
+	private static final int GENERATION_SHIFT = 40;
+	static final int GENERATION_MASK = 0xFF;
+	private static final int DEPTH_MASK = 0xFF;
+
+	private final int bucketMask;
+	private final long key;
+	private volatile int generation = 0;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder collisions = new LongAdder();
+
+	/**
+	 * @param sizeBits The table holds 2^sizeBits entries
+	 * @param key Mixed into every entry, only entries stored with the same
+	 * key are found
+	 */
+	LocklessTranspositionTable(int sizeBits, long key) {
+		bucketMask = (1 << sizeBits) / WAYS - 1;
+		this.key = key;
+	}
+
+	/**
+	 * @param index The index of a long, from 0 to 2^(sizeBits + 1) - 1
+	 */
+	abstract long load(int index);
+
+	abstract void store(int index, long value);
+
+	@Override
+	public float get(long board, int depth) {
+		int bucket = bucketOf(board);
+		long expected = board ^ key;
+		boolean occupied = true;
+		for (int slot = bucket; slot < bucket + 2 * WAYS; slot += 2) {
+			long data = load(slot + 1);
+			long check = load(slot);
+			int storedDepth = depthOf(data);
+			if ((check ^ data) == expected && storedDepth > 0) {
+				if (storedDepth > depth) {
+					hits.increment();
+					return Float.intBitsToFloat((int) data);
+				}
+				occupied = false;
+			} else if (storedDepth == 0) {
+				occupied = false;
+			}
+		}
+		misses.increment();
+		if (occupied) {
+			collisions.increment();
+		}
+		return Float.NaN;
+	}
+
+	@Override
+	public void put(long board, int depth, float value) {
+		int current = generation;
+		int bucket = bucketOf(board);
+		int victim = bucket;
+		int victimRank = Integer.MAX_VALUE;
+		long expected = board ^ key;
+		for (int slot = bucket; slot < bucket + 2 * WAYS; slot += 2) {
+			long data = load(slot + 1);
+			long check = load(slot);
+			int storedDepth = depthOf(data);
+			if ((check ^ data) == expected && storedDepth > 0) {
+				// Depth 0 marks an unused entry, so stored depths are offset by one
+				if (storedDepth > depth + 1) {
+					return;
+				}
+				victim = slot;
+				break;
+			}
+			// Empty entries rank lowest, then entries from older generations
+			int rank = storedDepth == 0 ? -1 : storedDepth + (generationOf(data) == current ? DEPTH_MASK + 1 : 0);
+			if (rank < victimRank) {
+				victimRank = rank;
+				victim = slot;
+			}
+		}
+		long data = (Float.floatToRawIntBits(value) & 0xFFFFFFFFL)
+				| ((long) Math.min(depth + 1, DEPTH_MASK) << DEPTH_SHIFT)
+				| ((long) current << GENERATION_SHIFT);
+		store(victim, expected ^ data);
+		store(victim + 1, data);
+	}
+
+	/**
+	 * Starts a new generation. Concurrent calls may count as one.
+	 */
+	@Override
+	public void age() {
+		generation = (generation + 1) & GENERATION_MASK;
+	}
+
+	@Override
+	public void clear() {
+		hits.reset();
+		misses.reset();
+		collisions.reset();
+	}
+
+	@Override
+	public long getHits() {
+		return hits.sum();
+	}
+
+	@Override
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	@Override
+	public long getCollisions() {
+		return collisions.sum();
+	}
+
+	@Override
+	public double getHitRate() {
+		long hitCount = hits.sum();
+		long lookups = hitCount + misses.sum();
+		return lookups == 0 ? 0 : (double) hitCount / lookups;
+	}
+
+	/**
+	 * @return the generation new entries are stored with
+	 */
+	int getGeneration() {
+		return generation;
+	}
+
+	/**
+	 * @param generation the generation to set
+	 */
+	void setGeneration(int generation) {
+		this.generation = generation & GENERATION_MASK;
+	}
+
+	/**
+	 * @return the index of the first long of the bucket board hashes to
+	 */
+	private int bucketOf(long board) {
+		long hash = board * 0x9E3779B97F4A7C15L;
+		return ((int) (hash >>> 32) & bucketMask) * 2 * WAYS;
+	}
+
+	private static int depthOf(long data) {
+		return (int) (data >>> DEPTH_SHIFT) & DEPTH_MASK;
+	}
+
+	private static int generationOf(long data) {
+		return (int) (data >>> GENERATION_SHIFT) & GENERATION_MASK;
+	}
+}
@@ -0,0 +1,142 @@
+package com.ian4d.ai2048.players;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A lock-free transposition table kept in a memory mapped file, so searched
+ * positions survive the JVM and can be shared by several processes at once.
+ *
+ * Entries use the same layout and replacement policy as
+ * SharedTranspositionTable, so the file never grows past its header plus 16
+ * bytes per entry. The header records the table size, the current generation
+ * and a fingerprint of whatever the values depend on, such as
+ * RowHeuristic.getFingerprint. A file written with a different size or
+ * fingerprint is wiped when opened. The fingerprint is also mixed into every
+ * entry, so a process still running with an old fingerprint after the file
+ * was wiped can't leave entries that a newer process would accept. Each open
+ * starts a new generation, so entries from earlier runs are the first to be
+ * replaced.
+ */
+public class MappedTranspositionTable extends LocklessTranspositionTable implements Closeable {
+
+	public static final int MAX_SIZE_BITS = 26;
+
+	static final int MAGIC = 0x32303454;
+	static final int VERSION = 2;
+	static final int HEADER_BYTES = 32;
+
+	private static final int SIZE_OFFSET = 8;
+	private static final int GENERATION_OFFSET = 12;
+	private static final int FINGERPRINT_OFFSET = 16;
+
+	private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+	private final FileChannel channel;
+	private final MappedByteBuffer buffer;
+
+	/**
+	 * Opens or creates a table file
+	 * @param path The file to map
+	 * @param sizeBits The table holds 2^sizeBits entries
+	 * @param fingerprint Identifies how the values were computed
+	 * @throws IOException if the file can't be opened or mapped
+	 */
+	public MappedTranspositionTable(Path path, int sizeBits, long fingerprint) throws IOException {
+		super(checkSize(sizeBits), fingerprint);
+		long bytes = HEADER_BYTES + (16L << sizeBits);
+		channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		try {
+			// Only one process checks or rewrites the header at a time
+			FileLock lock = channel.lock();
+			try {
+				buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+				buffer.order(ByteOrder.LITTLE_ENDIAN);
+				if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION
+						|| buffer.getInt(SIZE_OFFSET) != sizeBits
+						|| buffer.getLong(FINGERPRINT_OFFSET) != fingerprint) {
+					wipe();
+					buffer.putInt(0, MAGIC);
+					buffer.putInt(4, VERSION);
+					buffer.putInt(SIZE_OFFSET, sizeBits);
+					buffer.putLong(FINGERPRINT_OFFSET, fingerprint);
+				}
+				setGeneration(buffer.getInt(GENERATION_OFFSET) + 1);
+				buffer.putInt(GENERATION_OFFSET, getGeneration());
+			} finally {
+				lock.release();
+			}
+		} catch (IOException ex) {
+			channel.close();
+			throw ex;
+		}
+	}
+
+	@Override
+	long load(int index) {
+		return (long) LONGS.getOpaque(buffer, HEADER_BYTES + 8 * index);
+	}
+
+	@Override
+	void store(int index, long value) {
+		LONGS.setOpaque(buffer, HEADER_BYTES + 8 * index, value);
+	}
+
+	/**
+	 * Starts a new generation, and records it in the file for the next run
+	 */
+	@Override
+	public void age() {
+		super.age();
+		buffer.putInt(GENERATION_OFFSET, getGeneration());
+	}
+
+	/**
+	 * Removes every entry from the file and resets the counters. Entries
+	 * written by searches running at the same time may survive.
+	 */
+	@Override
+	public void clear() {
+		wipe();
+		super.clear();
+	}
+
+	/**
+	 * Writes the entries to disk. The operating system writes them back on
+	 * its own as well, this only makes sure they are there now.
+	 */
+	public void flush() {
+		buffer.force();
+	}
+
+	/**
+	 * Flushes the table and closes the file. The table must not be used
+	 * afterwards.
+	 */
+	@Override
+	public void close() throws IOException {
+		flush();
+		channel.close();
+	}
+
+	private void wipe() {
+		for (int offset = HEADER_BYTES; offset < buffer.capacity(); offset += 8) {
+			buffer.putLong(offset, 0L);
+		}
+	}
+
+	private static int checkSize(int sizeBits) {
+		if (sizeBits < 1 || sizeBits > MAX_SIZE_BITS) {
+			throw new IllegalArgumentException("Size out of range: 2^" + sizeBits);
+		}
+		return sizeBits;
+	}
+}
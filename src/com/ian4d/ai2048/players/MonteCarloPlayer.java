@@ -0,0 +1,196 @@
+package com.ian4d.ai2048.players;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import com.ian4d.ai2048.BitBoard;
+import com.ian4d.ai2048.Direction;
+import com.ian4d.ai2048.IBoardView;
+import com.ian4d.ai2048.IRandomSource;
+import com.ian4d.ai2048.SplittableRandomSource;
+
+/**
+ * Scores each legal move by playing random games from the position it leaves,
+ * and picks the move with the best mean final score.
+ *
+ * Rollouts run on packed 4x4 boards and are spread over every thread of a
+ * ForkJoinPool. Each thread keeps playing rollouts until the per move time
+ * budget runs out, so the number of rollouts, and the quality of the
+ * decision, grows with the number of cores in the pool.
+ *
+ * Asynchronous decisions copy the board before returning and run on the pool,
+ * so the caller is free to change the board while the rollouts run. A player
+ * makes one decision at a time.
+ */
+public class MonteCarloPlayer extends DecisionPlayer {
+
+	public static final long DEFAULT_BUDGET_MILLIS = 20;
+
+	private static final Direction[] DIRECTIONS = Direction.values();
+
+	private final long budgetNanos;
+	private final ForkJoinPool pool;
+	private final IRandomSource random;
+
+	private long rollouts = 0;
+	private long moves = 0;
+
+	/**
+	 * Creates a player that uses the common pool and the default time budget
+	 */
+	public MonteCarloPlayer() {
+		this(DEFAULT_BUDGET_MILLIS, ForkJoinPool.commonPool(), new SplittableRandomSource());
+	}
+
+	/**
+	 * @param budgetMillis The time to spend on each move
+	 * @param pool The pool rollouts run on, one task per thread of parallelism
+	 * @param random Split into one source per rollout task
+	 */
+	public MonteCarloPlayer(long budgetMillis, ForkJoinPool pool, IRandomSource random) {
+		this.budgetNanos = TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+		this.pool = pool;
+		this.random = random;
+	}
+
+	@Override
+	public Direction decide(IBoardView board) {
+		return findBestMove(BitBoard.pack(board));
+	}
+
+	@Override
+	public CompletableFuture<Direction> decideAsync(IBoardView board) {
+		final long packed = BitBoard.pack(board);
+		return CompletableFuture.supplyAsync(new Supplier<Direction>() {
+			@Override
+			public Direction get() {
+				return findBestMove(packed);
+			}
+		}, pool);
+	}
+
+	/**
+	 * Runs rollouts from a packed board until the time budget runs out
+	 * @param board The packed board
+	 * @return The move with the best mean rollout score, or null if no move
+	 * changes the board
+	 */
+	public Direction findBestMove(final long board) {
+		final long deadline = System.nanoTime() + budgetNanos;
+
+		List<Callable<RolloutTotals>> tasks = new ArrayList<Callable<RolloutTotals>>();
+		for (int i = 0; i < pool.getParallelism(); i++) {
+			final IRandomSource taskRandom = random.split();
+			tasks.add(new Callable<RolloutTotals>() {
+				@Override
+				public RolloutTotals call() {
+					return runRollouts(board, deadline, taskRandom);
+				}
+			});
+		}
+
+		RolloutTotals totals = new RolloutTotals();
+		for (Future<RolloutTotals> future : pool.invokeAll(tasks)) {
+			try {
+				totals.merge(future.get());
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				break;
+			} catch (ExecutionException ex) {
+				throw new IllegalStateException("Rollout failed", ex.getCause());
+			}
+		}
+
+		Direction best = null;
+		double bestScore = Double.NEGATIVE_INFINITY;
+		for (Direction direction : DIRECTIONS) {
+			int i = direction.ordinal();
+			rollouts += totals.counts[i];
+			if (totals.counts[i] > 0 && totals.scores[i] / totals.counts[i] > bestScore) {
+				bestScore = totals.scores[i] / totals.counts[i];
+				best = direction;
+			}
+		}
+		moves++;
+		return best;
+	}
+
+	/**
+	 * @return the mean number of rollouts played per move
+	 */
+	public double getRolloutsPerMove() {
+		return moves == 0 ? 0 : (double) rollouts / moves;
+	}
+
+	/**
+	 * Plays rounds of one rollout per legal move until the deadline. At least
+	 * one round is always played.
+	 */
+	private static RolloutTotals runRollouts(long board, long deadline, IRandomSource random) {
+		RolloutTotals totals = new RolloutTotals();
+		do {
+			for (Direction direction : DIRECTIONS) {
+				long next = direction.apply(board);
+				if (next == board) {
+					continue;
+				}
+				int score = direction.score(board);
+				totals.scores[direction.ordinal()] += score + rollout(next, random);
+				totals.counts[direction.ordinal()]++;
+			}
+		} while (System.nanoTime() < deadline);
+		return totals;
+	}
+
+	/**
+	 * Plays random moves from an afterstate until the game ends
+	 * @return The score gained along the way
+	 */
+	private static int rollout(long board, IRandomSource random) {
+		int score = 0;
+		while (true) {
+			board = BitBoard.spawnRandomTile(board, random);
+
+			// Pick uniformly among the moves that change the board
+			int legal = 0;
+			int count = 0;
+			for (int i = 0; i < DIRECTIONS.length; i++) {
+				if (DIRECTIONS[i].apply(board) != board) {
+					legal |= 1 << i;
+					count++;
+				}
+			}
+			if (count == 0) {
+				return score;
+			}
+			for (int pick = random.nextInt(count); pick > 0; pick--) {
+				legal &= legal - 1;
+			}
+			Direction direction = DIRECTIONS[Integer.numberOfTrailingZeros(legal)];
+			score += direction.score(board);
+			board = direction.apply(board);
+		}
+	}
+
+	/**
+	 * Score sums and rollout counts per direction
+	 */
+	private static class RolloutTotals {
+		final double[] scores = new double[DIRECTIONS.length];
+		final long[] counts = new long[DIRECTIONS.length];
+
+		void merge(RolloutTotals other) {
+			for (int i = 0; i < scores.length; i++) {
+				scores[i] += other.scores[i];
+				counts[i] += other.counts[i];
+			}
+		}
+	}
+}
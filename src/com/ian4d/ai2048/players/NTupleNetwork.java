@@ -0,0 +1,276 @@
+package com.ian4d.ai2048.players;
+
+import java.io.IOException;
+import java.nio.FloatBuffer;
+import java.nio.file.Path;
+
+import com.ian4d.ai2048.BitBoard;
+import com.ian4d.ai2048.Symmetry;
+
+/**
+ * Values packed 4x4 boards with lookup tables over fixed groups of tiles.
+ *
+ * Each tuple is a list of tile indices (row * 4 + col). The exponents on
+ * those tiles, 4 bits each, index a table of weights, and the value of a
+ * board is the sum of the weights selected by every tuple in each of the
+ * eight orientations of the board. Orientations share one table per tuple,
+ * so symmetric boards have equal values and each game trains all eight.
+ *
+ * Weights are plain floats that learners update without any locking, so
+ * threads training one network can lose the odd update to a race. This
+ * costs far less than coordinating the threads.
+ *
+ * Trained networks are saved as a WeightFile. Opening one maps the weights
+ * read only, which is instant and shares them between processes, while
+ * loading one copies them onto the heap for further training.
+ */
+public class NTupleNetwork {
+
+	/**
+	 * Two straight 4-tuples and three 2x2 squares, 1.3MB of weights
+	 */
+	public static final int[][] SMALL_TUPLES = {
+			{0, 1, 2, 3},
+			{4, 5, 6, 7},
+			{0, 1, 4, 5},
+			{1, 2, 5, 6},
+			{5, 6, 9, 10}
+	};
+
+	/**
+	 * The four 6-tuples of Szubert and Jaskowski, 256MB of weights
+	 */
+	public static final int[][] LARGE_TUPLES = {
+			{0, 1, 2, 3, 4, 5},
+			{4, 5, 6, 7, 8, 9},
+			{0, 1, 2, 4, 5, 6},
+			{4, 5, 6, 8, 9, 10}
+	};
+
+	// Identifies n-tuple weights in a WeightFile, "NTUPLE1"
+	static final long WEIGHT_FILE_KIND = 0x31454C5055544EL;
+
+	// Tuples longer than this need tables of 2^32 entries or more
+	private static final int MAX_TUPLE_LENGTH = 7;
+
+	/**
+	 * Maps the weights of a saved network read only. The returned network
+	 * can't be trained.
+	 * @param path A file written by save
+	 * @return The network
+	 * @throws IOException if the file can't be read or holds no network
+	 */
+	public static NTupleNetwork open(Path path) throws IOException {
+		WeightFile file = WeightFile.open(path);
+		int[][] tuples = readTuples(file, path);
+		FloatBuffer[] buffers = new FloatBuffer[tuples.length];
+		for (int t = 0; t < tuples.length; t++) {
+			buffers[t] = file.getTable(t);
+		}
+		return new NTupleNetwork(tuples, buffers);
+	}
+
+	/**
+	 * Reads a saved network onto the heap, checking it against its checksum
+	 * @param path A file written by save
+	 * @return The network, which can be trained further
+	 * @throws IOException if the file can't be read, holds no network or is
+	 * corrupt
+	 */
+	public static NTupleNetwork load(Path path) throws IOException {
+		WeightFile file = WeightFile.load(path);
+		NTupleNetwork network = new NTupleNetwork(readTuples(file, path));
+		for (int t = 0; t < network.weights.length; t++) {
+			file.getTable(t).get(network.weights[t]);
+		}
+		return network;
+	}
+
+	private final int[][] tuples;
+	private final float[][] weights;
+	private final FloatBuffer[] buffers;
+
+	// Every tuple in every orientation, and the table each one reads
+	private final int[][] cells;
+	private final float[][] tables;
+	private final FloatBuffer[] mappedTables;
+
+	/**
+	 * Creates a network with every weight 0
+	 * @param tuples The tile indices of each tuple
+	 */
+	public NTupleNetwork(int[][] tuples) {
+		this(tuples, null);
+	}
+
+	/**
+	 * @param buffers Read only weights for each tuple, or null to allocate
+	 * weights on the heap
+	 */
+	private NTupleNetwork(int[][] tuples, FloatBuffer[] buffers) {
+		Symmetry[] symmetries = Symmetry.values();
+		this.tuples = new int[tuples.length][];
+		this.weights = buffers == null ? new float[tuples.length][] : null;
+		this.buffers = buffers;
+		this.cells = new int[tuples.length * symmetries.length][];
+		this.tables = buffers == null ? new float[cells.length][] : null;
+		this.mappedTables = buffers == null ? null : new FloatBuffer[cells.length];
+		for (int t = 0; t < tuples.length; t++) {
+			int[] tuple = tuples[t];
+			if (tuple.length == 0 || tuple.length > MAX_TUPLE_LENGTH) {
+				throw new IllegalArgumentException("Tuples must have 1 to " + MAX_TUPLE_LENGTH + " tiles: " + tuple.length);
+			}
+			for (int cell : tuple) {
+				if (cell < 0 || cell >= BitBoard.DIM * BitBoard.DIM) {
+					throw new IllegalArgumentException("No such tile: " + cell);
+				}
+			}
+			this.tuples[t] = tuple.clone();
+			if (buffers == null) {
+				weights[t] = new float[1 << (4 * tuple.length)];
+			} else if (buffers[t].capacity() != 1 << (4 * tuple.length)) {
+				throw new IllegalArgumentException("Wrong table size for a " + tuple.length + "-tuple: " + buffers[t].capacity());
+			}
+			for (int s = 0; s < symmetries.length; s++) {
+				int[] mapped = new int[tuple.length];
+				for (int i = 0; i < tuple.length; i++) {
+					long tile = symmetries[s].apply(1L << (4 * tuple[i]));
+					mapped[i] = Long.numberOfTrailingZeros(tile) / 4;
+				}
+				cells[t * symmetries.length + s] = mapped;
+				if (buffers == null) {
+					tables[t * symmetries.length + s] = weights[t];
+				} else {
+					mappedTables[t * symmetries.length + s] = buffers[t];
+				}
+			}
+		}
+	}
+
+	/**
+	 * @param board The packed board
+	 * @return the sum of the weights board selects
+	 */
+	public float evaluate(long board) {
+		float value = 0f;
+		if (mappedTables != null) {
+			for (int i = 0; i < cells.length; i++) {
+				value += mappedTables[i].get(indexOf(board, cells[i]));
+			}
+			return value;
+		}
+		for (int i = 0; i < cells.length; i++) {
+			value += tables[i][indexOf(board, cells[i])];
+		}
+		return value;
+	}
+
+	/**
+	 * Adds delta to every weight board selects, once for each time it is
+	 * selected
+	 * @param board The packed board
+	 * @param delta The change to each weight
+	 */
+	public void update(long board, float delta) {
+		checkWritable();
+		for (int i = 0; i < cells.length; i++) {
+			tables[i][indexOf(board, cells[i])] += delta;
+		}
+	}
+
+	/**
+	 * @return the number of weights that make up the value of a board
+	 */
+	public int getLookupCount() {
+		return cells.length;
+	}
+
+	/**
+	 * @return the number of tuples
+	 */
+	public int getTupleCount() {
+		return tuples.length;
+	}
+
+	/**
+	 * @param tuple The index of a tuple
+	 * @return a copy of the tile indices of the tuple
+	 */
+	public int[] getTuple(int tuple) {
+		return tuples[tuple].clone();
+	}
+
+	/**
+	 * @param tuple The index of a tuple
+	 * @return the live weight table of the tuple, indexed by the exponents on
+	 * its tiles, the first tile in the highest bits
+	 */
+	public float[] getWeights(int tuple) {
+		checkWritable();
+		return weights[tuple];
+	}
+
+	/**
+	 * @return true if the weights are mapped from a file and can't be changed
+	 */
+	public boolean isReadOnly() {
+		return buffers != null;
+	}
+
+	/**
+	 * Writes the tuples and weights to a WeightFile. Updates made while
+	 * saving may or may not be included.
+	 * @param path The file to write, replacing any file already there
+	 * @throws IOException if the file can't be written
+	 */
+	public void save(Path path) throws IOException {
+		float[][] tablesToSave = weights;
+		if (tablesToSave == null) {
+			tablesToSave = new float[buffers.length][];
+			for (int t = 0; t < buffers.length; t++) {
+				tablesToSave[t] = new float[buffers[t].capacity()];
+				buffers[t].duplicate().get(tablesToSave[t]);
+			}
+		}
+		long[] tags = new long[tuples.length];
+		for (int t = 0; t < tuples.length; t++) {
+			tags[t] = tuples[t].length;
+			for (int i = 0; i < tuples[t].length; i++) {
+				tags[t] |= (long) tuples[t][i] << (4 + 4 * i);
+			}
+		}
+		WeightFile.write(path, WEIGHT_FILE_KIND, tags, tablesToSave);
+	}
+
+	private void checkWritable() {
+		if (buffers != null) {
+			throw new IllegalStateException("Network weights are mapped read only");
+		}
+	}
+
+	/**
+	 * Decodes the tuple each table of a weight file belongs to
+	 */
+	private static int[][] readTuples(WeightFile file, Path path) throws IOException {
+		if (file.getKind() != WEIGHT_FILE_KIND) {
+			throw new IOException("Not an n-tuple network: " + path);
+		}
+		int[][] tuples = new int[file.getTableCount()][];
+		for (int t = 0; t < tuples.length; t++) {
+			long tag = file.getTag(t);
+			tuples[t] = new int[(int) (tag & 0xF)];
+			for (int i = 0; i < tuples[t].length; i++) {
+				tuples[t][i] = (int) (tag >>> (4 + 4 * i)) & 0xF;
+			}
+		}
+		return tuples;
+	}
+
+	private static int indexOf(long board, int[] cells) {
+		int index = 0;
+		for (int cell : cells) {
+			index = (index << 4) | (int) ((board >>> (cell << 2)) & 0xF);
+		}
+		return index;
+	}
+}
@@ -0,0 +1,58 @@
+package com.ian4d.ai2048.players;
+
+import com.ian4d.ai2048.BitBoard;
+import com.ian4d.ai2048.Direction;
+import com.ian4d.ai2048.IBoardView;
+
+/**
+ * Plays the move with the highest score plus learned value of the board it
+ * leaves, as valued by an NTupleNetwork. Train the network with a
+ * TemporalDifferenceTrainer first, an untrained network only sees the score.
+ */
+public class NTuplePlayer extends DecisionPlayer {
+
+	private static final Direction[] DIRECTIONS = Direction.values();
+
+	private final NTupleNetwork network;
+
+	/**
+	 * @param network Values the board left by each move. Players can share one
+	 * network, including with a trainer that is still updating it.
+	 */
+	public NTuplePlayer(NTupleNetwork network) {
+		this.network = network;
+	}
+
+	@Override
+	public Direction decide(IBoardView board) {
+		return findBestMove(BitBoard.pack(board));
+	}
+
+	/**
+	 * @param board The packed board
+	 * @return The best move, or null if no move changes the board
+	 */
+	public Direction findBestMove(long board) {
+		Direction best = null;
+		float bestValue = Float.NEGATIVE_INFINITY;
+		for (Direction direction : DIRECTIONS) {
+			long next = direction.apply(board);
+			if (next == board) {
+				continue;
+			}
+			float value = direction.score(board) + network.evaluate(next);
+			if (value > bestValue) {
+				bestValue = value;
+				best = direction;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * @return the network moves are chosen with
+	 */
+	public NTupleNetwork getNetwork() {
+		return network;
+	}
+}
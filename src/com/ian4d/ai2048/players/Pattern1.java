@@ -1,29 +1,32 @@
 package com.ian4d.ai2048.players;
 
-import com.ian4d.ai2048.Board;
+import com.ian4d.ai2048.Direction;
+import com.ian4d.ai2048.IBoardView;
 
-public class Pattern1 implements IPlayer {
+public class Pattern1 extends DecisionPlayer {
 
 	
 	int count = 0;
 	
 	@Override
-	public void makeMove(Board board) {
+	public Direction decide(IBoardView board) {
+		Direction move;
 		switch (count % 4) {
 		case 0:
-			board.moveLeft();
+			move = Direction.LEFT;
 			break;
 		case 1:
-			board.moveUp();
+			move = Direction.UP;
 			break;
 		case 2:
-			board.moveRight();
+			move = Direction.RIGHT;
 			break;
-		case 3:
-			board.moveDown();
+		default:
+			move = Direction.DOWN;
 			break;
 		}
 		count++;
+		return move;
 	}
 
 }
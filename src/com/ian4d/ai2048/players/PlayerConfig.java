@@ -0,0 +1,103 @@
+package com.ian4d.ai2048.players;
+
+/**
+ * Settings for a search player.
+ *
+ * Without a time budget the player searches every move to the full depth.
+ * With one it deepens a ply at a time, starting from one, and plays the best
+ * move of the deepest search that finished once the budget runs out, so the
+ * time spent on a move stays bounded however crowded the board is.
+ */
+public class PlayerConfig {
+
+	private int depth = ExpectimaxPlayer.DEFAULT_DEPTH;
+	private long timeBudgetMillis = 0;
+	private ITranspositionTable table;
+	private boolean agesTable = false;
+	private RowHeuristic heuristic = RowHeuristic.getDefault();
+
+	/**
+	 * @return the number of tile spawns to look ahead, the deepest a time
+	 * budgeted search will go
+	 */
+	public int getDepth() {
+		return depth;
+	}
+
+	/**
+	 * @param depth the depth to set
+	 */
+	public void setDepth(int depth) {
+		if (depth < 0) {
+			throw new IllegalArgumentException("Depth must not be negative: " + depth);
+		}
+		this.depth = depth;
+	}
+
+	/**
+	 * @return the time to spend on each move, or 0 to always search to the
+	 * full depth
+	 */
+	public long getTimeBudgetMillis() {
+		return timeBudgetMillis;
+	}
+
+	/**
+	 * The first ply is always searched, so a move can take slightly longer
+	 * than the budget
+	 * @param timeBudgetMillis the timeBudgetMillis to set
+	 */
+	public void setTimeBudgetMillis(long timeBudgetMillis) {
+		if (timeBudgetMillis < 0) {
+			throw new IllegalArgumentException("Time budget must not be negative: " + timeBudgetMillis);
+		}
+		this.timeBudgetMillis = timeBudgetMillis;
+	}
+
+	/**
+	 * @return the table searched positions are cached in, or null for a new
+	 * table per player
+	 */
+	public ITranspositionTable getTable() {
+		return table;
+	}
+
+	/**
+	 * @param table the table to set
+	 */
+	public void setTable(ITranspositionTable table) {
+		this.table = table;
+	}
+
+	/**
+	 * @return true if the player ages the table given by getTable before
+	 * every move. A table the player creates itself is always aged.
+	 */
+	public boolean isAgesTable() {
+		return agesTable;
+	}
+
+	/**
+	 * Only set this for a table that no other player is searching, a table
+	 * shared between players should be aged by whoever shares it, for
+	 * example once per batch of games
+	 * @param agesTable the agesTable to set
+	 */
+	public void setAgesTable(boolean agesTable) {
+		this.agesTable = agesTable;
+	}
+
+	/**
+	 * @return the heuristic positions at the edge of the search are scored with
+	 */
+	public RowHeuristic getHeuristic() {
+		return heuristic;
+	}
+
+	/**
+	 * @param heuristic the heuristic to set
+	 */
+	public void setHeuristic(RowHeuristic heuristic) {
+		this.heuristic = heuristic;
+	}
+}
@@ -0,0 +1,36 @@
+package com.ian4d.ai2048.players;
+
+import com.ian4d.ai2048.IRandomSource;
+import com.ian4d.ai2048.SplittableRandomSource;
+
+/**
+ * Plays a uniformly random move on every board. Each random long supplies
+ * the moves for 32 boards.
+ */
+public class RandomBatchPolicy implements IBatchPolicy {
+
+	private final IRandomSource random;
+
+	public RandomBatchPolicy() {
+		this(new SplittableRandomSource());
+	}
+
+	/**
+	 * @param random The source of the moves
+	 */
+	public RandomBatchPolicy(IRandomSource random) {
+		this.random = random;
+	}
+
+	@Override
+	public void chooseMoves(long[] boards, int count, byte[] moves) {
+		long bits = 0;
+		for (int i = 0; i < count; i++) {
+			if ((i & 31) == 0) {
+				bits = random.nextLong();
+			}
+			moves[i] = (byte) (bits & 3);
+			bits >>>= 2;
+		}
+	}
+}
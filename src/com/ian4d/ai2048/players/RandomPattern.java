@@ -1,25 +1,41 @@
 package com.ian4d.ai2048.players;
 
-import com.ian4d.ai2048.Board;
+import com.ian4d.ai2048.Direction;
+import com.ian4d.ai2048.IBoardView;
+import com.ian4d.ai2048.IRandomSource;
+import com.ian4d.ai2048.SplittableRandomSource;
 
-public class RandomPattern implements IPlayer {
+/**
+ * Plays a uniformly random move every turn, whether or not it changes the
+ * board.
+ */
+public class RandomPattern extends DecisionPlayer {
+
+	private final IRandomSource random;
+
+	public RandomPattern() {
+		this(new SplittableRandomSource());
+	}
+
+	/**
+	 * @param random The source of the moves. Each player needs its own, since
+	 * sources aren't thread safe.
+	 */
+	public RandomPattern(IRandomSource random) {
+		this.random = random;
+	}
 
 	@Override
-	public void makeMove(Board board) {
-		int rand = (int)Math.floor(Math.random()*3);
-		switch (rand) {
+	public Direction decide(IBoardView board) {
+		switch (random.nextInt(4)) {
 		case 0:
-			board.moveLeft();
-			break;
+			return Direction.LEFT;
 		case 1:
-			board.moveUp();
-			break;
+			return Direction.UP;
 		case 2:
-			board.moveRight();
-			break;
-		case 3:
-			board.moveDown();
-			break;
+			return Direction.RIGHT;
+		default:
+			return Direction.DOWN;
 		}
 	}
 
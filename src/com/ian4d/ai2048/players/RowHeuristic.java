@@ -0,0 +1,155 @@
+package com.ian4d.ai2048.players;
+
+import com.ian4d.ai2048.BitBoard;
+import com.ian4d.ai2048.IBoardView;
+
+/**
+ * Scores 4x4 boards with one table lookup per row and column.
+ *
+ * The score of every possible packed row is worked out once, when the
+ * heuristic is created, and a board is scored as the sum of its four rows
+ * and four columns. A heuristic never changes after it is built, so one
+ * instance can be shared by any number of players and threads.
+ */
+public class RowHeuristic {
+
+	private static final RowHeuristic DEFAULT = new RowHeuristic(new HeuristicWeights());
+
+	/**
+	 * @return a shared heuristic built from the default weights
+	 */
+	public static RowHeuristic getDefault() {
+		return DEFAULT;
+	}
+
+	private final float[] rowScores = new float[1 << 16];
+	private final float lossValue;
+
+	/**
+	 * Builds the row table. Later changes to weights have no effect.
+	 * @param weights The weight of each term
+	 */
+	public RowHeuristic(HeuristicWeights weights) {
+		float[] sumPowers = new float[16];
+		float[] monotonicityPowers = new float[16];
+		for (int i = 0; i < 16; i++) {
+			sumPowers[i] = (float) Math.pow(i, weights.getSumPower());
+			monotonicityPowers[i] = (float) Math.pow(i, weights.getMonotonicityPower());
+		}
+		float lowest = 0f;
+		for (int row = 0; row < rowScores.length; row++) {
+			rowScores[row] = scoreRow(row, weights, sumPowers, monotonicityPowers);
+			lowest = Math.min(lowest, rowScores[row]);
+		}
+		// Twice the lowest sum of eight rows, so rounding can't close the gap
+		lossValue = 16 * lowest - 1f;
+	}
+
+	/**
+	 * @param board A packed board
+	 * @return the sum of the scores of its rows and columns
+	 */
+	public float evaluate(long board) {
+		long transposed = BitBoard.transpose(board);
+		return rowScores[(int) board & 0xFFFF]
+				+ rowScores[(int) (board >>> 16) & 0xFFFF]
+				+ rowScores[(int) (board >>> 32) & 0xFFFF]
+				+ rowScores[(int) (board >>> 48) & 0xFFFF]
+				+ rowScores[(int) transposed & 0xFFFF]
+				+ rowScores[(int) (transposed >>> 16) & 0xFFFF]
+				+ rowScores[(int) (transposed >>> 32) & 0xFFFF]
+				+ rowScores[(int) (transposed >>> 48) & 0xFFFF];
+	}
+
+	/**
+	 * @param board Any 4x4 board
+	 * @return the sum of the scores of its rows and columns
+	 */
+	public float evaluate(IBoardView board) {
+		return evaluate(BitBoard.pack(board));
+	}
+
+	/**
+	 * @param row A packed row, its left most tile in the lowest nibble
+	 * @return the score of the row
+	 */
+	public float evaluateRow(int row) {
+		return rowScores[row & 0xFFFF];
+	}
+
+	/**
+	 * @return a value below the score of any board, for searches to give
+	 * boards where the game is lost
+	 */
+	public float getLossValue() {
+		return lossValue;
+	}
+
+	/**
+	 * @return a hash of every row score, which changes whenever the weights
+	 * do. Caches of values computed with this heuristic can use it to tell
+	 * whether they are still valid.
+	 */
+	public long getFingerprint() {
+		long hash = 1125899906842597L;
+		for (float score : rowScores) {
+			hash = 31 * hash + Float.floatToIntBits(score);
+		}
+		return hash;
+	}
+
+	/**
+	 * Rewards empty tiles and merges, and penalizes rows that aren't
+	 * monotonic, hold a lot of value away from the edges or have large steps
+	 * between neighbours
+	 */
+	private static float scoreRow(int row, HeuristicWeights weights, float[] sumPowers, float[] monotonicityPowers) {
+		int[] line = new int[BitBoard.DIM];
+		float sum = 0f;
+		int empty = 0;
+		int merges = 0;
+		int previous = 0;
+		int counter = 0;
+		int roughness = 0;
+		for (int i = 0; i < BitBoard.DIM; i++) {
+			int exponent = (row >>> (4 * i)) & 0xF;
+			line[i] = exponent;
+			sum += sumPowers[exponent];
+			if (exponent == 0) {
+				empty++;
+			} else {
+				if (previous == exponent) {
+					counter++;
+				} else if (counter > 0) {
+					merges += 1 + counter;
+					counter = 0;
+				}
+				if (previous != 0) {
+					roughness += Math.abs(previous - exponent);
+				}
+				previous = exponent;
+			}
+		}
+		if (counter > 0) {
+			merges += 1 + counter;
+		}
+
+		float monotonicLeft = 0f;
+		float monotonicRight = 0f;
+		for (int i = 1; i < BitBoard.DIM; i++) {
+			float difference = monotonicityPowers[line[i - 1]] - monotonicityPowers[line[i]];
+			if (difference > 0) {
+				monotonicLeft += difference;
+			} else {
+				monotonicRight -= difference;
+			}
+		}
+
+		return weights.getBaseScore() / (2 * BitBoard.DIM)
+				+ weights.getEmptyWeight() * empty
+				+ weights.getMergeWeight() * merges
+				- weights.getMonotonicityWeight() * Math.min(monotonicLeft, monotonicRight)
+				- weights.getSumWeight() * sum
+				- weights.getSmoothnessWeight() * roughness;
+	}
+}
@@ -0,0 +1,62 @@
+package com.ian4d.ai2048.players;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/**
+ * A fixed size cache of searched positions that any number of threads can
+ * read and write at once without locking.
+ *
+ * Entries live in a single long[], two longs each: the entry's data (value,
+ * depth and generation) and its board XORed with that data. Each long is
+ * read and written atomically, but nothing stops two threads from writing
+ * the halves of one entry at the same time. A torn entry no longer XORs
+ * back to the board it claims to hold, so it is simply treated as a miss.
+ *
+ * Boards hash to a bucket of two entries. A new result replaces the entry
+ * for the same board unless that one was searched deeper. Otherwise it
+ * replaces an empty entry, then the shallowest entry left from before the
+ * last call to age, then the shallowest entry overall.
+ */
+public class SharedTranspositionTable extends LocklessTranspositionTable {
+
+	private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+
+	private final long[] entries;
+
+	/**
+	 * @param sizeBits The table holds 2^sizeBits entries
+	 */
+	public SharedTranspositionTable(int sizeBits) {
+		super(checkSize(sizeBits), 0L);
+		entries = new long[2 << sizeBits];
+	}
+
+	@Override
+	long load(int index) {
+		return (long) LONGS.getOpaque(entries, index);
+	}
+
+	@Override
+	void store(int index, long value) {
+		LONGS.setOpaque(entries, index, value);
+	}
+
+	/**
+	 * Removes every entry and resets the counters. Entries written by
+	 * searches running at the same time may survive.
+	 */
+	@Override
+	public void clear() {
+		Arrays.fill(entries, 0L);
+		super.clear();
+	}
+
+	private static int checkSize(int sizeBits) {
+		if (sizeBits < 1 || sizeBits > 29) {
+			throw new IllegalArgumentException("Size out of range: 2^" + sizeBits);
+		}
+		return sizeBits;
+	}
+}
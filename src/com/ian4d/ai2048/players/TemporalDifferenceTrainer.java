@@ -0,0 +1,191 @@
+package com.ian4d.ai2048.players;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.ian4d.ai2048.BitBoard;
+import com.ian4d.ai2048.Board;
+import com.ian4d.ai2048.Direction;
+import com.ian4d.ai2048.IRandomSource;
+import com.ian4d.ai2048.SplittableRandomSource;
+import com.ian4d.ai2048.TournamentResult;
+
+/**
+ * Trains an NTupleNetwork by playing games against itself.
+ *
+ * Moves are chosen greedily by the network, as NTuplePlayer would, and after
+ * every move the value of the previous afterstate, the board left by a move
+ * before a tile spawns, is pulled towards the reward and value of the next
+ * one. This is TD(0) learning of afterstate values.
+ *
+ * Every worker thread plays its own games on packed boards and updates the
+ * shared weights directly, without locks, so throughput scales with the
+ * number of cores.
+ */
+public class TemporalDifferenceTrainer {
+
+	public static final float DEFAULT_LEARNING_RATE = 0.1f;
+
+	private static final Direction[] DIRECTIONS = Direction.values();
+
+	/**
+	 * Creates a trainer with its own worker pool
+	 * @param network The network to train
+	 * @param workers The number of worker threads
+	 * @return
+	 */
+	public static TemporalDifferenceTrainer newTrainer(NTupleNetwork network, int workers) {
+		return newTrainer(network, workers, new SplittableRandomSource());
+	}
+
+	/**
+	 * Creates a trainer with its own worker pool
+	 * @param network The network to train
+	 * @param workers The number of worker threads
+	 * @param random Split into one source per worker for every call to train
+	 * @return
+	 */
+	public static TemporalDifferenceTrainer newTrainer(NTupleNetwork network, int workers, IRandomSource random) {
+		TemporalDifferenceTrainer trainer = new TemporalDifferenceTrainer();
+		trainer.network = network;
+		trainer.workers = workers;
+		trainer.random = random;
+		trainer.pool = Executors.newFixedThreadPool(workers);
+		return trainer;
+	}
+
+	private NTupleNetwork network;
+	private ExecutorService pool;
+	private IRandomSource random;
+	private int workers;
+	private int maxPower = Board.MAX_POWER;
+	private float learningRate = DEFAULT_LEARNING_RATE;
+
+	/**
+	 * Plays and learns from a number of games
+	 * @param games The number of games to play
+	 * @return The results of the games played, which improve as training
+	 * goes on
+	 * @throws InterruptedException if interrupted while waiting for the workers
+	 */
+	public TournamentResult train(final int games) throws InterruptedException {
+		long start = System.nanoTime();
+		final AtomicInteger nextGame = new AtomicInteger();
+		// Spread the learning rate over every weight that makes up a value
+		final float rate = learningRate / network.getLookupCount();
+
+		List<Future<TournamentResult>> futures = new ArrayList<Future<TournamentResult>>();
+		for (int i = 0; i < Math.min(workers, games); i++) {
+			final IRandomSource workerRandom = random.split();
+			futures.add(pool.submit(new Callable<TournamentResult>() {
+				@Override
+				public TournamentResult call() {
+					TournamentResult result = new TournamentResult(TemporalDifferenceTrainer.class.getSimpleName());
+					while (nextGame.getAndIncrement() < games) {
+						playGame(workerRandom, rate, result);
+					}
+					return result;
+				}
+			}));
+		}
+
+		TournamentResult total = new TournamentResult(TemporalDifferenceTrainer.class.getSimpleName());
+		for (Future<TournamentResult> future : futures) {
+			try {
+				total.merge(future.get());
+			} catch (ExecutionException ex) {
+				throw new IllegalStateException("Training worker failed", ex.getCause());
+			}
+		}
+		total.setElapsedNanos(System.nanoTime() - start);
+		return total;
+	}
+
+	/**
+	 * Stops the worker threads once running games finish
+	 */
+	public void shutdown() {
+		pool.shutdown();
+	}
+
+	/**
+	 * @return the step size of each update, before it is spread over the
+	 * weights of a board
+	 */
+	public float getLearningRate() {
+		return learningRate;
+	}
+
+	/**
+	 * @param learningRate the learningRate to set
+	 */
+	public void setLearningRate(float learningRate) {
+		this.learningRate = learningRate;
+	}
+
+	/**
+	 * @param maxPower The maximum power of 2 counted as a win in the results
+	 */
+	public void setMaxPower(int maxPower) {
+		this.maxPower = maxPower;
+	}
+
+	/**
+	 * @return the network being trained
+	 */
+	public NTupleNetwork getNetwork() {
+		return network;
+	}
+
+	/**
+	 * Plays one game to the end, updating the network after every move
+	 */
+	private void playGame(IRandomSource random, float rate, TournamentResult result) {
+		long board = BitBoard.spawnRandomTile(BitBoard.spawnRandomTile(0L, random), random);
+		long previous = 0L;
+		boolean started = false;
+		int score = 0;
+		int turns = 0;
+		while (true) {
+			long bestNext = board;
+			int bestReward = 0;
+			float bestValue = Float.NEGATIVE_INFINITY;
+			for (Direction direction : DIRECTIONS) {
+				long next = direction.apply(board);
+				if (next == board) {
+					continue;
+				}
+				int reward = direction.score(board);
+				float value = reward + network.evaluate(next);
+				if (value > bestValue) {
+					bestValue = value;
+					bestNext = next;
+					bestReward = reward;
+				}
+			}
+
+			// The last afterstate of a game is worth nothing
+			float target = bestNext == board ? 0f : bestValue;
+			if (started) {
+				network.update(previous, rate * (target - network.evaluate(previous)));
+			}
+			if (bestNext == board) {
+				break;
+			}
+
+			previous = bestNext;
+			started = true;
+			score += bestReward;
+			turns++;
+			board = BitBoard.spawnRandomTile(bestNext, random);
+		}
+		int maxTile = 1 << BitBoard.maxExponent(board);
+		result.addGame(maxTile >= 1 << maxPower, true, score, turns, maxTile);
+	}
+}
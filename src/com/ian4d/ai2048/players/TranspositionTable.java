@@ -0,0 +1,109 @@
+package com.ian4d.ai2048.players;
+
+/**
+ * A fixed size cache of searched positions, keyed by packed 4x4 board.
+ *
+ * The table is direct mapped: each board hashes to a single entry, and a newer
+ * result replaces the stored one unless the stored one was searched deeper.
+ * It isn't thread safe, use SharedTranspositionTable to share one cache
+ * between threads.
+ */
+public class TranspositionTable implements ITranspositionTable {
+
+	private final long[] keys;
+	private final float[] values;
+	private final byte[] depths;
+	private final int mask;
+
+	private long lookups = 0;
+	private long hits = 0;
+	private long collisions = 0;
+
+	/**
+	 * @param sizeBits The table holds 2^sizeBits entries
+	 */
+	public TranspositionTable(int sizeBits) {
+		int size = 1 << sizeBits;
+		keys = new long[size];
+		values = new float[size];
+		depths = new byte[size];
+		mask = size - 1;
+	}
+
+	@Override
+	public float get(long board, int depth) {
+		lookups++;
+		int index = indexOf(board);
+		// Depth 0 marks an unused entry, so stored depths are offset by one
+		if (keys[index] == board && depths[index] > depth) {
+			hits++;
+			return values[index];
+		}
+		if (keys[index] != board && depths[index] > 0) {
+			collisions++;
+		}
+		return Float.NaN;
+	}
+
+	@Override
+	public void put(long board, int depth, float value) {
+		int index = indexOf(board);
+		if (keys[index] == board && depths[index] > depth + 1) {
+			return;
+		}
+		keys[index] = board;
+		values[index] = value;
+		depths[index] = (byte) (depth + 1);
+	}
+
+	/**
+	 * A direct mapped table has no choice of entry to replace, so aging has
+	 * no effect
+	 */
+	@Override
+	public void age() {
+	}
+
+	@Override
+	public void clear() {
+		for (int i = 0; i < keys.length; i++) {
+			keys[i] = 0;
+			depths[i] = 0;
+		}
+		lookups = 0;
+		hits = 0;
+		collisions = 0;
+	}
+
+	/**
+	 * @return the number of lookups
+	 */
+	public long getLookups() {
+		return lookups;
+	}
+
+	@Override
+	public long getHits() {
+		return hits;
+	}
+
+	@Override
+	public long getMisses() {
+		return lookups - hits;
+	}
+
+	@Override
+	public long getCollisions() {
+		return collisions;
+	}
+
+	@Override
+	public double getHitRate() {
+		return lookups == 0 ? 0 : (double) hits / lookups;
+	}
+
+	private int indexOf(long board) {
+		long hash = board * 0x9E3779B97F4A7C15L;
+		return (int) (hash >>> 32) & mask;
+	}
+}
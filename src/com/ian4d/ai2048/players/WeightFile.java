@@ -0,0 +1,322 @@
+package com.ian4d.ai2048.players;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Set;
+import java.util.zip.CRC32C;
+
+/**
+ * A file of float weight tables that players map instead of deserializing.
+ *
+ * Everything is little-endian. A 64 byte header holds a magic number, the
+ * format version, the table count, a kind chosen by the player that wrote
+ * the file, a CRC32C of the table data and a CRC32C of the header and table
+ * directory. The directory follows with the offset, length and a tag for
+ * each table, and each table starts on a 64 byte boundary.
+ *
+ * Opening a file only reads and checks the header and directory, and maps
+ * each table read only, so startup takes the same time whatever the size of
+ * the weights, and processes mapping the same file share one copy in the
+ * page cache. Call verify to check the data itself. Where files can't be
+ * mapped the tables are read onto the heap instead.
+ *
+ * Files are written to a temporary file that then replaces the target, so
+ * processes that already mapped the old file keep reading it unchanged.
+ */
+public class WeightFile {
+
+	static final int MAGIC = 0x32303457;
+	static final int VERSION = 1;
+	static final int HEADER_BYTES = 64;
+	static final int ENTRY_BYTES = 24;
+
+	private static final int COUNT_OFFSET = 8;
+	private static final int KIND_OFFSET = 16;
+	private static final int DATA_CHECKSUM_OFFSET = 24;
+	private static final int HEADER_CHECKSUM_OFFSET = 32;
+	private static final int ALIGNMENT = 64;
+	private static final int WRITE_BUFFER_BYTES = 1 << 16;
+
+	/**
+	 * Writes tables to a weight file, replacing any file already there
+	 * @param path The file to write
+	 * @param kind Identifies the player and layout the tables are for
+	 * @param tags One value per table for the player to describe it with
+	 * @param tables The weights
+	 * @throws IOException if the file can't be written
+	 */
+	public static void write(Path path, long kind, long[] tags, float[][] tables) throws IOException {
+		if (tags.length != tables.length) {
+			throw new IllegalArgumentException("Need one tag per table: " + tags.length + " tags, " + tables.length + " tables");
+		}
+		ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES + ENTRY_BYTES * tables.length).order(ByteOrder.LITTLE_ENDIAN);
+		long offset = align(header.capacity());
+		for (int t = 0; t < tables.length; t++) {
+			int entry = HEADER_BYTES + ENTRY_BYTES * t;
+			header.putLong(entry, offset);
+			header.putLong(entry + 8, tables[t].length);
+			header.putLong(entry + 16, tags[t]);
+			offset = align(offset + 4L * tables[t].length);
+		}
+
+		Path parent = path.toAbsolutePath().getParent();
+		Path temp = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+		try {
+			CRC32C dataChecksum = new CRC32C();
+			try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+				ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+				for (int t = 0; t < tables.length; t++) {
+					channel.position(header.getLong(HEADER_BYTES + ENTRY_BYTES * t));
+					for (float weight : tables[t]) {
+						if (!buffer.hasRemaining()) {
+							writeData(channel, buffer, dataChecksum);
+						}
+						buffer.putFloat(weight);
+					}
+					writeData(channel, buffer, dataChecksum);
+				}
+
+				header.putInt(0, MAGIC);
+				header.putInt(4, VERSION);
+				header.putInt(COUNT_OFFSET, tables.length);
+				header.putLong(KIND_OFFSET, kind);
+				header.putLong(DATA_CHECKSUM_OFFSET, dataChecksum.getValue());
+				header.putLong(HEADER_CHECKSUM_OFFSET, headerChecksum(header));
+				header.clear();
+				channel.position(0);
+				while (header.hasRemaining()) {
+					channel.write(header);
+				}
+				channel.force(true);
+			}
+			setPermissions(temp, path);
+			Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+	}
+
+	/**
+	 * Maps a weight file read only, or reads it onto the heap if it can't be
+	 * mapped
+	 * @param path The file to open
+	 * @return The open file
+	 * @throws IOException if the file can't be read or its header is invalid
+	 */
+	public static WeightFile open(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			WeightFile file = readHeader(channel, path);
+			try {
+				file.mapTables(channel);
+			} catch (IOException | UnsupportedOperationException ex) {
+				file.readTables(channel);
+			}
+			return file;
+		}
+	}
+
+	/**
+	 * Reads a weight file onto the heap, checking every table against the
+	 * checksum
+	 * @param path The file to read
+	 * @return The loaded file
+	 * @throws IOException if the file can't be read or is corrupt
+	 */
+	public static WeightFile load(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			WeightFile file = readHeader(channel, path);
+			file.readTables(channel);
+			return file;
+		}
+	}
+
+	private final Path path;
+	private final long kind;
+	private final long dataChecksum;
+	private final long[] offsets;
+	private final int[] lengths;
+	private final long[] tags;
+	private final ByteBuffer[] bytes;
+	private final FloatBuffer[] tables;
+	private boolean mapped;
+
+	private WeightFile(Path path, long kind, long dataChecksum, int tableCount) {
+		this.path = path;
+		this.kind = kind;
+		this.dataChecksum = dataChecksum;
+		this.offsets = new long[tableCount];
+		this.lengths = new int[tableCount];
+		this.tags = new long[tableCount];
+		this.bytes = new ByteBuffer[tableCount];
+		this.tables = new FloatBuffer[tableCount];
+	}
+
+	/**
+	 * Checks every table against the checksum. This reads the whole file.
+	 * @throws IOException if the tables don't match the checksum
+	 */
+	public void verify() throws IOException {
+		CRC32C checksum = new CRC32C();
+		for (ByteBuffer table : bytes) {
+			checksum.update(table.duplicate());
+		}
+		if (checksum.getValue() != dataChecksum) {
+			throw new IOException("Weight file is corrupt: " + path);
+		}
+	}
+
+	/**
+	 * @return the kind the writer gave the file
+	 */
+	public long getKind() {
+		return kind;
+	}
+
+	/**
+	 * @return the number of tables
+	 */
+	public int getTableCount() {
+		return tables.length;
+	}
+
+	/**
+	 * @param table The index of a table
+	 * @return the tag the writer gave the table
+	 */
+	public long getTag(int table) {
+		return tags[table];
+	}
+
+	/**
+	 * @param table The index of a table
+	 * @return a read only view of the weights of the table
+	 */
+	public FloatBuffer getTable(int table) {
+		return tables[table].asReadOnlyBuffer();
+	}
+
+	/**
+	 * @return true if the tables are mapped from the file, false if they were
+	 * read onto the heap
+	 */
+	public boolean isMapped() {
+		return mapped;
+	}
+
+	private void mapTables(FileChannel channel) throws IOException {
+		for (int t = 0; t < tables.length; t++) {
+			bytes[t] = channel.map(FileChannel.MapMode.READ_ONLY, offsets[t], 4L * lengths[t]);
+			tables[t] = bytes[t].order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+		}
+		mapped = true;
+	}
+
+	private void readTables(FileChannel channel) throws IOException {
+		for (int t = 0; t < tables.length; t++) {
+			bytes[t] = ByteBuffer.allocate(4 * lengths[t]);
+			readFully(channel, bytes[t], offsets[t]);
+			tables[t] = bytes[t].order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+		}
+		mapped = false;
+		verify();
+	}
+
+	private static WeightFile readHeader(FileChannel channel, Path path) throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+		readFully(channel, header, 0);
+		if (header.getInt(0) != MAGIC) {
+			throw new IOException("Not a weight file: " + path);
+		}
+		if (header.getInt(4) != VERSION) {
+			throw new IOException("Unsupported weight file version " + header.getInt(4) + ": " + path);
+		}
+		int count = header.getInt(COUNT_OFFSET);
+		if (count < 0 || (long) ENTRY_BYTES * count > channel.size()) {
+			throw new IOException("Weight file is corrupt: " + path);
+		}
+
+		ByteBuffer full = ByteBuffer.allocate(HEADER_BYTES + ENTRY_BYTES * count).order(ByteOrder.LITTLE_ENDIAN);
+		readFully(channel, full, 0);
+		if (full.getLong(HEADER_CHECKSUM_OFFSET) != headerChecksum(full)) {
+			throw new IOException("Weight file is corrupt: " + path);
+		}
+
+		WeightFile file = new WeightFile(path, full.getLong(KIND_OFFSET), full.getLong(DATA_CHECKSUM_OFFSET), count);
+		for (int t = 0; t < count; t++) {
+			int entry = HEADER_BYTES + ENTRY_BYTES * t;
+			long offset = full.getLong(entry);
+			long length = full.getLong(entry + 8);
+			if (offset < full.capacity() || length < 0 || length > Integer.MAX_VALUE / 4
+					|| offset + 4 * length > channel.size()) {
+				throw new IOException("Weight file is corrupt: " + path);
+			}
+			file.offsets[t] = offset;
+			file.lengths[t] = (int) length;
+			file.tags[t] = full.getLong(entry + 16);
+		}
+		return file;
+	}
+
+	/**
+	 * @return the CRC32C of a header and directory, with the header checksum
+	 * itself taken as 0
+	 */
+	private static long headerChecksum(ByteBuffer header) {
+		ByteBuffer copy = ByteBuffer.allocate(header.capacity()).order(ByteOrder.LITTLE_ENDIAN);
+		copy.put(header.duplicate().clear());
+		copy.putLong(HEADER_CHECKSUM_OFFSET, 0L);
+		CRC32C checksum = new CRC32C();
+		checksum.update(copy.array());
+		return checksum.getValue();
+	}
+
+	private static void writeData(FileChannel channel, ByteBuffer buffer, CRC32C checksum) throws IOException {
+		buffer.flip();
+		checksum.update(buffer.duplicate());
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, position + buffer.position()) < 0) {
+				throw new IOException("Weight file is truncated");
+			}
+		}
+		buffer.flip();
+	}
+
+	private static long align(long offset) {
+		return (offset + ALIGNMENT - 1) & -ALIGNMENT;
+	}
+
+	/**
+	 * Temporary files are only readable by their owner, so the new file takes
+	 * the permissions of the file it replaces, or is readable by everyone if
+	 * there is none, before it is moved into place
+	 */
+	private static void setPermissions(Path temp, Path path) throws IOException {
+		if (!Files.getFileStore(temp).supportsFileAttributeView(PosixFileAttributeView.class)) {
+			return;
+		}
+		Set<PosixFilePermission> permissions;
+		if (Files.exists(path)) {
+			permissions = Files.getPosixFilePermissions(path);
+		} else {
+			permissions = PosixFilePermissions.fromString("rw-r--r--");
+		}
+		Files.setPosixFilePermissions(temp, permissions);
+	}
+}
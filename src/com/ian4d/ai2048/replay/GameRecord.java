@@ -0,0 +1,239 @@
+package com.ian4d.ai2048.replay;
+
+import java.util.Arrays;
+
+import com.ian4d.ai2048.Board;
+import com.ian4d.ai2048.Direction;
+import com.ian4d.ai2048.Game;
+import com.ian4d.ai2048.SplittableRandomSource;
+
+/**
+ * Everything needed to re-simulate one game: its seed, board size, and for
+ * every turn the move made and the tile spawned after it.
+ *
+ * Each turn is packed into one byte on boards of up to 16 tiles and two bytes
+ * on boards of up to 4096 tiles:
+ * bits 0-2 hold the move (a Direction ordinal, or NO_MOVE), bit 3 is set when
+ * the spawned tile was a 4 rather than a 2, and the remaining bits hold the
+ * spawned tile index (row * dim + col).
+ *
+ * A spawn can only be missing when the board is full, which the replay can
+ * see for itself, except on the last turn of a game cut off before its end.
+ * The record keeps a flag for that case.
+ *
+ * Records are reused by ReplayReader, so the turn buffer only grows.
+ */
+public class GameRecord {
+
+	static final int NO_MOVE = 4;
+	private static final int MOVE_MASK = 0x7;
+	private static final int FOUR_BIT = 0x8;
+	private static final int INDEX_SHIFT = 4;
+	private static final int MAX_SMALL_TILES = 16;
+	private static final int MAX_TILES = 4096;
+
+	private static final Direction[] DIRECTIONS = Direction.values();
+
+	private long seed;
+	private int dim;
+	private int maxPower;
+	private boolean won;
+	private boolean lastSpawned;
+	private int turns;
+	private byte[] data = new byte[256];
+
+	/**
+	 * Clears the record for a new game
+	 * @param seed The seed of the game
+	 * @param dim The size of each side of the board
+	 * @param maxPower The maximum power of 2 the player is trying to reach
+	 */
+	public void reset(long seed, int dim, int maxPower) {
+		if (dim * dim > MAX_TILES) {
+			throw new IllegalArgumentException("Replays hold boards of up to " + MAX_TILES + " tiles");
+		}
+		this.seed = seed;
+		this.dim = dim;
+		this.maxPower = maxPower;
+		this.won = false;
+		this.lastSpawned = false;
+		this.turns = 0;
+	}
+
+	/**
+	 * Records a move. Every turn starts with a move, even one that didn't
+	 * change the board.
+	 * @param move The move made, or null if the board didn't change
+	 */
+	public void addMove(Direction move) {
+		int bytes = getTurnBytes();
+		ensureCapacity((turns + 1) * bytes);
+		int code = move == null ? NO_MOVE : move.ordinal();
+		writeTurn(turns, code);
+		turns++;
+		lastSpawned = false;
+	}
+
+	/**
+	 * Records the tile spawned after the last move
+	 * @param index The tile index (row * dim + col)
+	 * @param value The value placed, 2 or 4
+	 */
+	public void addSpawn(int index, int value) {
+		int turn = readTurn(turns - 1);
+		turn |= (value == 4 ? FOUR_BIT : 0) | (index << INDEX_SHIFT);
+		writeTurn(turns - 1, turn);
+		lastSpawned = true;
+	}
+
+	/**
+	 * Plays the recorded game on the board engine Game uses for its size
+	 * @return the board in the final position of the game
+	 */
+	public Board replay() {
+		return replay(Game.createBoard(dim, maxPower, new SplittableRandomSource(seed)));
+	}
+
+	/**
+	 * Plays the recorded game on board, which is emptied first
+	 * @param board A board of the recorded size, using the same engine the
+	 * game was played on
+	 * @return board, in the final position of the game
+	 */
+	public Board replay(Board board) {
+		if (board.getDim() != dim) {
+			throw new IllegalArgumentException("Replay needs a " + dim + "x" + dim + " board");
+		}
+		board.empty();
+		for (int i = 0; i < turns; i++) {
+			Direction move = getMove(i);
+			if (move != null) {
+				move.apply(board);
+			}
+			boolean spawned = i < turns - 1 ? board.getEmptyTileCount() > 0 : lastSpawned;
+			if (spawned) {
+				int index = getSpawnIndex(i);
+				board.setTileValue(index / dim, index % dim, getSpawnValue(i));
+			}
+		}
+		return board;
+	}
+
+	/**
+	 * @param turn The turn to read
+	 * @return the move made on that turn, or null if the board didn't change
+	 */
+	public Direction getMove(int turn) {
+		int code = readTurn(turn) & MOVE_MASK;
+		return code == NO_MOVE ? null : DIRECTIONS[code];
+	}
+
+	/**
+	 * @param turn The turn to read
+	 * @return the tile index spawned after the move
+	 */
+	public int getSpawnIndex(int turn) {
+		return readTurn(turn) >>> INDEX_SHIFT;
+	}
+
+	/**
+	 * @param turn The turn to read
+	 * @return the value spawned after the move
+	 */
+	public int getSpawnValue(int turn) {
+		return (readTurn(turn) & FOUR_BIT) != 0 ? 4 : 2;
+	}
+
+	/**
+	 * @return the number of bytes each turn takes
+	 */
+	public int getTurnBytes() {
+		return dim * dim <= MAX_SMALL_TILES ? 1 : 2;
+	}
+
+	/**
+	 * @return the seed
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * @return the dim
+	 */
+	public int getDim() {
+		return dim;
+	}
+
+	/**
+	 * @return the maxPower
+	 */
+	public int getMaxPower() {
+		return maxPower;
+	}
+
+	/**
+	 * @return true if the game was won
+	 */
+	public boolean isWon() {
+		return won;
+	}
+
+	/**
+	 * @param won the won to set
+	 */
+	public void setWon(boolean won) {
+		this.won = won;
+	}
+
+	/**
+	 * @return the number of turns played
+	 */
+	public int getTurns() {
+		return turns;
+	}
+
+	boolean isLastSpawned() {
+		return lastSpawned;
+	}
+
+	/**
+	 * @return the encoded turns, valid up to getTurns() * getTurnBytes()
+	 */
+	byte[] getData() {
+		return data;
+	}
+
+	/**
+	 * Makes room for an encoded game read from a file
+	 */
+	void load(long seed, int dim, int maxPower, boolean won, boolean lastSpawned, int turns) {
+		reset(seed, dim, maxPower);
+		this.won = won;
+		this.lastSpawned = lastSpawned;
+		this.turns = turns;
+		ensureCapacity(turns * getTurnBytes());
+	}
+
+	private void ensureCapacity(int bytes) {
+		if (data.length < bytes) {
+			data = Arrays.copyOf(data, Math.max(bytes, data.length * 2));
+		}
+	}
+
+	private int readTurn(int turn) {
+		if (getTurnBytes() == 1) {
+			return data[turn] & 0xFF;
+		}
+		return (data[2 * turn] & 0xFF) | ((data[2 * turn + 1] & 0xFF) << 8);
+	}
+
+	private void writeTurn(int turn, int value) {
+		if (getTurnBytes() == 1) {
+			data[turn] = (byte) value;
+		} else {
+			data[2 * turn] = (byte) value;
+			data[2 * turn + 1] = (byte) (value >>> 8);
+		}
+	}
+}
@@ -0,0 +1,70 @@
+package com.ian4d.ai2048.replay;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import com.ian4d.ai2048.Direction;
+import com.ian4d.ai2048.events.IGameListener;
+
+/**
+ * Builds the record of the game in progress and writes it once the game ends.
+ *
+ * A recorder listens to a single Game. Recorders on different threads can
+ * share one ReplayWriter.
+ *
+ * Moves are read from Board.getLastMove once the game has applied them, so
+ * a move that changes nothing is recorded as a pass.
+ */
+public class GameRecorder implements IGameListener {
+
+	private final ReplayWriter writer;
+	private final GameRecord record = new GameRecord();
+	private boolean recording = false;
+
+	/**
+	 * @param writer The file finished games are written to
+	 */
+	public GameRecorder(ReplayWriter writer) {
+		this.writer = writer;
+	}
+
+	/**
+	 * Starts recording a new game, dropping any unfinished one
+	 */
+	@Override
+	public void gameStarted(long seed, int dim, int maxPower) {
+		record.reset(seed, dim, maxPower);
+		recording = true;
+	}
+
+	@Override
+	public void turnPlayed(int turn, Direction move, long nanos, int score) {
+		if (recording) {
+			record.addMove(move);
+		}
+	}
+
+	@Override
+	public void tileSpawned(int index, int value) {
+		if (recording) {
+			record.addSpawn(index, value);
+		}
+	}
+
+	/**
+	 * Writes the finished game
+	 */
+	@Override
+	public void gameEnded(int turns, int score, int maxTile, boolean won) {
+		if (!recording) {
+			return;
+		}
+		recording = false;
+		record.setWon(won);
+		try {
+			writer.write(record);
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+}
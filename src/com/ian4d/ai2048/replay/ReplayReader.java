@@ -0,0 +1,98 @@
+package com.ian4d.ai2048.replay;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Streams game records out of a replay file written by ReplayWriter.
+ *
+ * Only one buffer of the file is held at a time, and records are read into a
+ * caller supplied GameRecord, so files of any size can be scanned.
+ */
+public class ReplayReader implements Closeable {
+
+	private final FileChannel channel;
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect(ReplayWriter.BUFFER_BYTES);
+
+	/**
+	 * Opens a replay file and checks its header
+	 * @param path The file to read
+	 * @throws IOException if the file can't be read or isn't a replay file
+	 */
+	public ReplayReader(Path path) throws IOException {
+		channel = FileChannel.open(path, StandardOpenOption.READ);
+		buffer.flip();
+		if (!fill(ReplayWriter.HEADER_BYTES) || buffer.getInt() != ReplayWriter.MAGIC) {
+			channel.close();
+			throw new IOException("Not a replay file: " + path);
+		}
+		short version = buffer.getShort();
+		if (version != ReplayWriter.VERSION) {
+			channel.close();
+			throw new IOException("Unsupported replay version " + version + ": " + path);
+		}
+	}
+
+	/**
+	 * Reads the next game
+	 * @param record The record to fill
+	 * @return false if there are no more games
+	 * @throws IOException if the file can't be read or ends mid record
+	 */
+	public boolean next(GameRecord record) throws IOException {
+		if (!fill(ReplayWriter.RECORD_HEADER_BYTES)) {
+			if (buffer.hasRemaining()) {
+				throw new EOFException("Replay file ends mid record");
+			}
+			return false;
+		}
+		long seed = buffer.getLong();
+		int dim = buffer.get() & 0xFF;
+		int maxPower = buffer.get() & 0xFF;
+		int flags = buffer.get();
+		int turns = buffer.getInt();
+		record.load(seed, dim, maxPower, (flags & ReplayWriter.WON_FLAG) != 0,
+				(flags & ReplayWriter.LAST_SPAWNED_FLAG) != 0, turns);
+
+		byte[] data = record.getData();
+		int length = turns * record.getTurnBytes();
+		int offset = 0;
+		while (offset < length) {
+			if (!buffer.hasRemaining() && !fill(1)) {
+				throw new EOFException("Replay file ends mid record");
+			}
+			int chunk = Math.min(buffer.remaining(), length - offset);
+			buffer.get(data, offset, chunk);
+			offset += chunk;
+		}
+		return true;
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	/**
+	 * Reads from the file until at least bytes are buffered
+	 * @return false if the file ended first
+	 */
+	private boolean fill(int bytes) throws IOException {
+		if (buffer.remaining() >= bytes) {
+			return true;
+		}
+		buffer.compact();
+		while (buffer.position() < bytes) {
+			if (channel.read(buffer) < 0) {
+				break;
+			}
+		}
+		buffer.flip();
+		return buffer.remaining() >= bytes;
+	}
+}
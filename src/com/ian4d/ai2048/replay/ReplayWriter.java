@@ -0,0 +1,105 @@
+package com.ian4d.ai2048.replay;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends game records to a binary replay file through a buffered channel.
+ *
+ * The file starts with a magic number and format version, followed by one
+ * record per game: the seed (8 bytes), board size and max power (1 byte
+ * each), a flags byte, the number of turns (4 bytes) and the encoded turns.
+ *
+ * Writes are synchronized, so games played on several threads can share one
+ * writer.
+ */
+public class ReplayWriter implements Closeable {
+
+	static final int MAGIC = 0x32303438;
+	static final short VERSION = 1;
+	static final int HEADER_BYTES = 6;
+	static final int RECORD_HEADER_BYTES = 15;
+	static final int WON_FLAG = 0x1;
+	static final int LAST_SPAWNED_FLAG = 0x2;
+	static final int BUFFER_BYTES = 1 << 20;
+
+	private final FileChannel channel;
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+	private long games = 0;
+
+	/**
+	 * Creates or truncates a replay file
+	 * @param path The file to write
+	 * @throws IOException if the file can't be opened
+	 */
+	public ReplayWriter(Path path) throws IOException {
+		channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+		buffer.putInt(MAGIC);
+		buffer.putShort(VERSION);
+	}
+
+	/**
+	 * Appends a game
+	 * @param record The game to write
+	 * @throws IOException if the file can't be written
+	 */
+	public synchronized void write(GameRecord record) throws IOException {
+		ensureRoom(RECORD_HEADER_BYTES);
+		buffer.putLong(record.getSeed());
+		buffer.put((byte) record.getDim());
+		buffer.put((byte) record.getMaxPower());
+		buffer.put((byte) ((record.isWon() ? WON_FLAG : 0) | (record.isLastSpawned() ? LAST_SPAWNED_FLAG : 0)));
+		buffer.putInt(record.getTurns());
+
+		byte[] data = record.getData();
+		int length = record.getTurns() * record.getTurnBytes();
+		int offset = 0;
+		while (offset < length) {
+			if (!buffer.hasRemaining()) {
+				flush();
+			}
+			int chunk = Math.min(buffer.remaining(), length - offset);
+			buffer.put(data, offset, chunk);
+			offset += chunk;
+		}
+		games++;
+	}
+
+	/**
+	 * Writes buffered records to the file
+	 * @throws IOException if the file can't be written
+	 */
+	public synchronized void flush() throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	/**
+	 * @return the number of games written
+	 */
+	public synchronized long getGames() {
+		return games;
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		try {
+			flush();
+		} finally {
+			channel.close();
+		}
+	}
+
+	private void ensureRoom(int bytes) throws IOException {
+		if (buffer.remaining() < bytes) {
+			flush();
+		}
+	}
+}
@@ -0,0 +1,41 @@
+package com.ian4d.ai2048.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.ian4d.ai2048.BatchSimulator;
+import com.ian4d.ai2048.SplittableRandomSource;
+import com.ian4d.ai2048.TournamentResult;
+import com.ian4d.ai2048.players.GreedyBatchPolicy;
+import com.ian4d.ai2048.players.RandomBatchPolicy;
+
+public class TestBatchSimulator {
+
+	private int standard_power = 11;
+
+	@Test
+	public void playsEveryGame() {
+		// More games than slots, and not a multiple of the batch size
+		BatchSimulator simulator = BatchSimulator.newBatchSimulator(64, standard_power, new SplittableRandomSource(1));
+		TournamentResult result = simulator.play(new RandomBatchPolicy(new SplittableRandomSource(2)), 1000);
+		assertEquals("Wrong number of games", 1000, result.getGames());
+		assertEquals("Stalled games", 0, result.getStalled());
+		assertEquals("Moves don't match turns", simulator.getTotalMoves(), Math.round(result.getAverageTurns() * 1000));
+		assertTrue("Games too short", result.getHighestTile() >= 64);
+	}
+
+	@Test
+	public void seededBatchesRepeat() {
+		String first = play();
+		assertEquals("Seeded batch didn't repeat", first, play());
+	}
+
+	private String play() {
+		BatchSimulator simulator = BatchSimulator.newBatchSimulator(16, standard_power, new SplittableRandomSource(3));
+		TournamentResult result = simulator.play(new GreedyBatchPolicy(), 100);
+		return result.getAverageScore() + " " + result.getBestScore() + " " + result.getAverageTurns();
+	}
+
+}
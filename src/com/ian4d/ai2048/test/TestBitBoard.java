@@ -0,0 +1,163 @@
+package com.ian4d.ai2048.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.ian4d.ai2048.Afterstate;
+import com.ian4d.ai2048.BitBoard;
+import com.ian4d.ai2048.Direction;
+
+public class TestBitBoard {
+
+	private int dim = BitBoard.DIM;
+	private int standard_power = 11;
+
+	BitBoard board = BitBoard.createBitBoard(standard_power);
+
+	@Before
+	public void setUp() throws Exception {
+		board.empty();
+	}
+
+	@Test
+	public void moveBoardLeft() {
+		board.setTileValue(0, dim-1, 2);
+		assertTrue(err("Failed to report move"), board.moveLeft());
+
+		assertEquals(err("Failed to move tile left"), 2, board.getTileValue(0, 0));
+		assertEquals(err("Failed to move tile left"), 0, board.getTileValue(0, dim-1));
+
+		board.setTileValue(0, 1, 2);
+		board.moveLeft();
+
+		assertEquals(err("Failed to merge tiles left"), 4, board.getTileValue(0, 0));
+
+		board.setTileValue(0, 1, 4);
+		board.setTileValue(0, 2, 4);
+		board.setTileValue(0, 3, 4);
+		board.moveLeft();
+
+		assertEquals(err("Failed to merge tiles left"), 8, board.getTileValue(0, 0));
+		assertEquals(err("Failed to merge tiles left"), 8, board.getTileValue(0, 1));
+		assertEquals(err("Failed to merge tiles left"), 0, board.getTileValue(0, 2));
+		assertEquals(err("Failed to merge tiles left"), 0, board.getTileValue(0, 3));
+
+		board.setTileValue(0, 1, 4);
+		assertFalse(err("Reported a move that changed nothing"), board.moveLeft());
+	}
+
+	@Test
+	public void moveBoardRight() {
+		board.setTileValue(1, 0, 2);
+		board.setTileValue(1, 1, 2);
+		board.setTileValue(1, 2, 4);
+		board.moveRight();
+
+		assertEquals(err("Failed to merge tiles right"), 4, board.getTileValue(1, dim-1));
+		assertEquals(err("Failed to merge tiles right"), 4, board.getTileValue(1, dim-2));
+		assertEquals(err("Failed to merge tiles right"), 0, board.getTileValue(1, dim-3));
+	}
+
+	@Test
+	public void moveBoardUp() {
+		board.setTileValue(dim - 1, 2, 2);
+		board.setTileValue(1, 2, 2);
+		board.moveUp();
+
+		assertEquals(err("Failed to merge tiles up"), 4, board.getTileValue(0, 2));
+		assertEquals(err("Failed to merge tiles up"), 0, board.getTileValue(1, 2));
+		assertEquals(err("Failed to merge tiles up"), 0, board.getTileValue(dim - 1, 2));
+	}
+
+	@Test
+	public void moveBoardDown() {
+		board.setTileValue(0, 3, 8);
+		board.setTileValue(1, 3, 8);
+		board.setTileValue(2, 3, 8);
+		board.setTileValue(3, 3, 8);
+		board.moveDown();
+
+		assertEquals(err("Failed to merge tiles down"), 16, board.getTileValue(dim - 1, 3));
+		assertEquals(err("Failed to merge tiles down"), 16, board.getTileValue(dim - 2, 3));
+		assertEquals(err("Failed to merge tiles down"), 0, board.getTileValue(dim - 3, 3));
+		assertEquals(err("Failed to merge tiles down"), 0, board.getTileValue(dim - 4, 3));
+	}
+
+	@Test
+	public void transposeBoard() {
+		for (int i = 0; i < dim; i++) {
+			for (int j = 0; j < dim; j++) {
+				board.setTileValue(i, j, 1 << (i * dim + j) % 15 + 1);
+			}
+		}
+		long packed = board.getPackedBoard();
+		board.setPackedBoard(BitBoard.transpose(packed));
+		for (int i = 0; i < dim; i++) {
+			for (int j = 0; j < dim; j++) {
+				assertEquals(err("Failed to transpose board"), 1 << (j * dim + i) % 15 + 1, board.getTileValue(i, j));
+			}
+		}
+		assertEquals(err("Transpose is not its own inverse"), packed, BitBoard.transpose(board.getPackedBoard()));
+	}
+
+	@Test
+	public void fillTiles() {
+		assertEquals(err("Failed to count empty tiles"), dim * dim, BitBoard.countEmpty(board.getPackedBoard()));
+		for (int i = 0; i < dim * dim; i++) {
+			assertTrue(err("Failed to fill tile"), board.fillRandomTile(2));
+		}
+		assertEquals(err("Failed to count empty tiles"), 0, BitBoard.countEmpty(board.getPackedBoard()));
+		assertFalse(err("Filled a tile on a full board"), board.fillRandomTile(2));
+		assertTrue(err("Failed to acknowledge moves"), board.hasLegalMoves());
+	}
+
+	@Test
+	public void canMove() {
+		board.setTileValue(0, 0, 2);
+
+		assertTrue(err("Failed to acknowledge moves"), board.hasLegalMoves());
+		assertTrue(err("Failed to detect fair move"), board.canMoveRight());
+		assertTrue(err("Failed to detect fair move"), board.canMoveDown());
+		assertFalse(err("Failed to reject bad move"), board.canMoveUp());
+		assertFalse(err("Failed to reject bad move"), board.canMoveLeft());
+
+		for (int i = 0; i < dim; i++) {
+			for (int j = 0; j < dim; j++) {
+				board.setTileValue(i, j, 1 << (i * dim + j) % 15 + 1);
+			}
+		}
+		assertFalse(err("Failed to recognize lack of moves"), board.hasLegalMoves());
+	}
+
+	@Test
+	public void previewMoves() {
+		board.setTileValue(0, 0, 2);
+		board.setTileValue(0, 1, 2);
+		board.setTileValue(0, 2, 4);
+		board.setTileValue(2, 1, 2);
+		long start = board.getPackedBoard();
+
+		Afterstate[] afterstates = board.previewMoves(new Afterstate[4]);
+		assertEquals(err("Preview changed the board"), start, board.getPackedBoard());
+
+		for (Direction direction : Direction.values()) {
+			Afterstate afterstate = afterstates[direction.ordinal()];
+			board.setPackedBoard(start);
+			int score = board.getScore();
+			assertEquals(err("Preview disagrees on change " + direction), direction.apply(board), afterstate.isChanged());
+			assertEquals(err("Preview disagrees on board " + direction), board.getPackedBoard(), afterstate.getPacked());
+			assertEquals(err("Preview disagrees on score " + direction), board.getScore() - score, afterstate.getScoreGain());
+			assertEquals(err("Preview disagrees on empty count " + direction), board.getEmptyTileCount(), afterstate.getEmptyCount());
+			assertEquals(err("Preview disagrees on tiles " + direction), board.getTileValue(0, 0), afterstate.getTileValue(0, 0, dim));
+		}
+	}
+
+	private String err(String str) {
+		return str + "\n" + board.toString();
+	}
+
+}
@@ -13,7 +13,10 @@ import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import com.ian4d.ai2048.Afterstate;
 import com.ian4d.ai2048.Board;
+import com.ian4d.ai2048.Direction;
+import com.ian4d.ai2048.SplittableRandomSource;
 
 /**
  * @author zerominusminus
@@ -262,9 +265,92 @@ public class TestBoard {
 		
 	}
 	
+	@Test
+	public void legalMovesTrackMoves() {
+		Board large = Board.createBoard(large_dim, large_power, new SplittableRandomSource(7));
+		Afterstate[] afterstates = null;
+		for (int turn = 0; turn < 2000 && (turn == 0 || large.hasLegalMoves()); turn++) {
+			large.fillRandomTile(turn % 10 == 0 ? 4 : 2);
+			afterstates = large.previewMoves(afterstates);
+			boolean any = false;
+			for (Afterstate afterstate : afterstates) {
+				any |= afterstate.isChanged();
+			}
+			assertEquals("Legal moves out of step with the board", any, large.hasLegalMoves());
+			assertEquals("Left move out of step with the board", afterstates[Direction.LEFT.ordinal()].isChanged(), large.canMoveLeft());
+			assertEquals("Right move out of step with the board", afterstates[Direction.RIGHT.ordinal()].isChanged(), large.canMoveRight());
+			assertEquals("Up move out of step with the board", afterstates[Direction.UP.ordinal()].isChanged(), large.canMoveUp());
+			assertEquals("Down move out of step with the board", afterstates[Direction.DOWN.ordinal()].isChanged(), large.canMoveDown());
+			Direction.values()[turn % 4].apply(large);
+		}
+	}
+	
 	@Test
 	public void getEmptyTiles() {
 		// confirm all tiles are empty
+		board.empty();
+		int dim = board.getDim();
+		assertEquals(err("Failed to count empty tiles"), dim*dim, board.getEmptyTileCount());
+		assertEquals(err("Failed to list empty tiles"), dim*dim, board.getEmptyTiles().size());
+		for (int i = 0; i < dim; i++) {
+			for (int j = 0; j < dim; j++) {
+				assertTrue(err("Failed to list empty tile"), board.getEmptyTiles().contains(i + "," + j));
+			}
+		}
+		
+		// confirm filled tiles leave the set
+		board.setTileValue(1, 2, 2);
+		assertEquals(err("Failed to remove filled tile"), dim*dim - 1, board.getEmptyTileCount());
+		assertFalse(err("Failed to remove filled tile"), board.getEmptyTiles().contains("1,2"));
+		
+		for (int i = 1; i < dim*dim; i++) {
+			assertTrue(err("Failed to fill random tile"), board.fillRandomTile(2));
+		}
+		assertEquals(err("Failed to fill every tile"), 0, board.getEmptyTileCount());
+		assertFalse(err("Filled a tile on a full board"), board.fillRandomTile(2));
+	}
+	
+	@Test
+	public void previewMoves() {
+		int dim = board.getDim();
+		int[][] start = new int[][] {
+				{2, 2, 4, 0},
+				{0, 4, 0, 4},
+				{8, 0, 8, 2},
+				{2, 4, 8, 16}};
+		board.setTiles(copy(start));
+		String before = board.toString();
+		
+		Afterstate[] afterstates = board.previewMoves(null);
+		assertEquals(err("Preview changed the board"), before, board.toString());
+		assertTrue(err("Failed to reuse afterstate buffer"), afterstates == board.previewMoves(afterstates));
+		
+		for (Direction direction : Direction.values()) {
+			Afterstate afterstate = afterstates[direction.ordinal()];
+			assertEquals(err("Preview out of order"), direction, afterstate.getDirection());
+			
+			board.setTiles(copy(start));
+			board.hasLegalMoves();
+			int score = board.getScore();
+			boolean changed = direction.apply(board);
+			
+			assertEquals(err("Preview disagrees on change " + direction), changed, afterstate.isChanged());
+			assertEquals(err("Preview disagrees on score " + direction), board.getScore() - score, afterstate.getScoreGain());
+			assertEquals(err("Preview disagrees on empty count " + direction), board.getEmptyTileCount(), afterstate.getEmptyCount());
+			for (int i = 0; i < dim; i++) {
+				for (int j = 0; j < dim; j++) {
+					assertEquals(err("Preview disagrees on tiles " + direction), board.getTileValue(i, j), afterstate.getTileValue(i, j, dim));
+				}
+			}
+		}
+	}
+	
+	private int[][] copy(int[][] tiles) {
+		int[][] result = new int[tiles.length][];
+		for (int i = 0; i < tiles.length; i++) {
+			result[i] = tiles[i].clone();
+		}
+		return result;
 	}
 	
 	private String err(String str) {
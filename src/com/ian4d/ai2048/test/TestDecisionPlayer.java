@@ -0,0 +1,141 @@
+package com.ian4d.ai2048.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import com.ian4d.ai2048.BitBoard;
+import com.ian4d.ai2048.Board;
+import com.ian4d.ai2048.Direction;
+import com.ian4d.ai2048.Game;
+import com.ian4d.ai2048.IBoardView;
+import com.ian4d.ai2048.SplittableRandomSource;
+import com.ian4d.ai2048.players.AllDown;
+import com.ian4d.ai2048.players.IDecisionPlayer;
+import com.ian4d.ai2048.players.IPlayer;
+import com.ian4d.ai2048.players.LegacyPlayerAdapter;
+import com.ian4d.ai2048.players.MonteCarloPlayer;
+import com.ian4d.ai2048.players.Pattern1;
+import com.ian4d.ai2048.players.RandomPattern;
+
+public class TestDecisionPlayer {
+
+	private int standard_power = 11;
+
+	@Test
+	public void adaptsLegacyPlayers() {
+		IPlayer legacy = new AllDownLegacy();
+		for (int dim : new int[] {3, 4, 5}) {
+			Game adapted = Game.newGame(dim, standard_power, legacy, new SplittableRandomSource(dim));
+			Game decided = Game.newGame(dim, standard_power, new AllDown(), new SplittableRandomSource(dim));
+			assertTrue("Legacy player not adapted", adapted.getPlayer() instanceof LegacyPlayerAdapter);
+			for (int turn = 0; turn < 50; turn++) {
+				adapted.startNextTurn();
+				decided.startNextTurn();
+				assertEquals("Game over differs", decided.makeMove(), adapted.makeMove());
+				assertEquals("Board differs on turn " + turn, decided.getBoard().toString(), adapted.getBoard().toString());
+				assertEquals("Move differs", decided.getBoard().getLastMove(), adapted.getBoard().getLastMove());
+			}
+		}
+	}
+
+	@Test
+	public void passesWhenLegacyMoveChangesNothing() {
+		IDecisionPlayer adapter = LegacyPlayerAdapter.adapt(new AllDownLegacy());
+		Board board = Game.createBoard(4, standard_power, new SplittableRandomSource(1));
+		board.setTileValue(3, 0, 2);
+		assertNull("Move on a board that can't move down", adapter.decide(board));
+		assertEquals("Legacy player moved the game's board", 2, board.getTileValue(3, 0));
+	}
+
+	@Test
+	public void pipelinesGames() {
+		int games = 8;
+		Game[] pipelined = new Game[games];
+		Game[] sequential = new Game[games];
+		for (int i = 0; i < games; i++) {
+			pipelined[i] = Game.newGame(4, standard_power, new Pattern1(), new SplittableRandomSource(i));
+			sequential[i] = Game.newGame(4, standard_power, new Pattern1(), new SplittableRandomSource(i));
+		}
+		List<CompletableFuture<Direction>> moves = new ArrayList<CompletableFuture<Direction>>(games);
+		for (int turn = 0; turn < 100; turn++) {
+			moves.clear();
+			for (int i = 0; i < games; i++) {
+				moves.add(pipelined[i].requestMove());
+			}
+			for (int i = 0; i < games; i++) {
+				assertEquals("Game over differs", sequential[i].makeMove(), pipelined[i].applyMove(moves.get(i).join()));
+				assertEquals("Board differs", sequential[i].getBoard().toString(), pipelined[i].getBoard().toString());
+				pipelined[i].startNextTurn();
+				sequential[i].startNextTurn();
+			}
+		}
+	}
+
+	@Test
+	public void decidesBatches() {
+		IBoardView[] boards = new IBoardView[3];
+		for (int i = 0; i < boards.length; i++) {
+			boards[i] = Game.createBoard(4, standard_power, new SplittableRandomSource(i));
+		}
+		Direction[] moves = new Direction[boards.length];
+		new Pattern1().decideAll(boards, boards.length, moves);
+		assertEquals(Direction.LEFT, moves[0]);
+		assertEquals(Direction.UP, moves[1]);
+		assertEquals(Direction.RIGHT, moves[2]);
+	}
+
+	@Test
+	public void randomPatternMovesDown() {
+		RandomPattern player = new RandomPattern();
+		Board board = Game.createBoard(4, standard_power, new SplittableRandomSource(1));
+		boolean down = false;
+		for (int i = 0; i < 1000 && !down; i++) {
+			down = player.decide(board) == Direction.DOWN;
+		}
+		assertTrue("Never moved down", down);
+	}
+
+	@Test
+	public void seededRandomPatternRepeats() {
+		RandomPattern player = new RandomPattern(new SplittableRandomSource(3));
+		RandomPattern same = new RandomPattern(new SplittableRandomSource(3));
+		Board board = Game.createBoard(4, standard_power, new SplittableRandomSource(1));
+		for (int i = 0; i < 100; i++) {
+			assertEquals("Seeded players disagree on move " + i, player.decide(board), same.decide(board));
+		}
+	}
+
+	@Test
+	public void decidesAsynchronouslyOnCopy() {
+		ForkJoinPool pool = new ForkJoinPool(2);
+		try {
+			MonteCarloPlayer player = new MonteCarloPlayer(5, pool, new SplittableRandomSource(1));
+			BitBoard board = BitBoard.createBitBoard(standard_power, new SplittableRandomSource(1));
+			board.setTileValue(0, 0, 2);
+			board.setTileValue(0, 1, 2);
+			CompletableFuture<Direction> move = player.decideAsync(board);
+			board.empty();
+			assertTrue("Chose a move that changes nothing", move.join() != null);
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * A legacy player that always moves down
+	 */
+	private static class AllDownLegacy implements IPlayer {
+		@Override
+		public void makeMove(Board board) {
+			board.moveDown();
+		}
+	}
+}
@@ -0,0 +1,51 @@
+package com.ian4d.ai2048.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import org.junit.Test;
+
+import com.ian4d.ai2048.Game;
+import com.ian4d.ai2048.SplittableRandomSource;
+import com.ian4d.ai2048.events.AsyncEventWriter;
+import com.ian4d.ai2048.players.Pattern1;
+
+public class TestEvents {
+
+	@Test
+	public void asyncWriterWritesEveryEvent() {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		AsyncEventWriter writer = new AsyncEventWriter(new PrintStream(bytes), 1 << 16, true);
+		Game game = Game.newGame(4, 11, new Pattern1(), new SplittableRandomSource(3));
+		game.addGameListener(writer);
+		int turns = 0;
+		for (int i = 0; i < 3; i++) {
+			game.restart();
+			while (!game.makeMove()) {
+				game.startNextTurn();
+			}
+			turns += game.getTurns();
+		}
+		writer.close();
+		assertEquals("Events were dropped", 0, writer.getDropped());
+
+		int started = 0;
+		int ended = 0;
+		int played = 0;
+		for (String line : bytes.toString().split(System.lineSeparator())) {
+			if (line.startsWith("GAME START")) {
+				started++;
+			} else if (line.startsWith("GAME OVER")) {
+				ended++;
+			} else if (line.startsWith("TURN")) {
+				played++;
+			}
+		}
+		assertEquals("Wrong number of started games", 3, started);
+		assertEquals("Wrong number of ended games", 3, ended);
+		assertEquals("Wrong number of turns", turns, played);
+	}
+
+}
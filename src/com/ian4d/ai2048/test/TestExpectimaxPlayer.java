@@ -0,0 +1,119 @@
+package com.ian4d.ai2048.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.ian4d.ai2048.Direction;
+import com.ian4d.ai2048.Game;
+import com.ian4d.ai2048.SplittableRandomSource;
+import com.ian4d.ai2048.players.ExpectimaxPlayer;
+import com.ian4d.ai2048.players.PlayerConfig;
+import com.ian4d.ai2048.players.RowHeuristic;
+import com.ian4d.ai2048.players.SharedTranspositionTable;
+import com.ian4d.ai2048.players.TranspositionTable;
+
+public class TestExpectimaxPlayer {
+
+	private int standard_power = 11;
+
+	@Test
+	public void configMatchesFixedDepth() {
+		PlayerConfig config = new PlayerConfig();
+		config.setDepth(2);
+		config.setTable(new TranspositionTable(16));
+		Game configured = Game.newGame(4, standard_power, new ExpectimaxPlayer(config), new SplittableRandomSource(1));
+		Game fixed = Game.newGame(4, standard_power,
+				new ExpectimaxPlayer(2, new TranspositionTable(16), RowHeuristic.getDefault()),
+				new SplittableRandomSource(1));
+		for (int turn = 0; turn < 200; turn++) {
+			boolean over = configured.makeMove();
+			assertEquals("Game over differs", fixed.makeMove(), over);
+			assertEquals("Board differs on turn " + turn, fixed.getBoard().toString(), configured.getBoard().toString());
+			if (over) {
+				break;
+			}
+			configured.startNextTurn();
+			fixed.startNextTurn();
+		}
+	}
+
+	@Test
+	public void stopsDeepeningWhenBudgetRunsOut() {
+		PlayerConfig config = new PlayerConfig();
+		config.setDepth(20);
+		config.setTimeBudgetMillis(5);
+		ExpectimaxPlayer player = new ExpectimaxPlayer(config);
+
+		// An open board that would take far longer than the budget at
+		// full depth
+		long board = 0x1234432112344321L & 0x0FF00FF00FF00FF0L;
+		long start = System.nanoTime();
+		Direction move = player.findBestMove(board);
+		long millis = (System.nanoTime() - start) / 1000000;
+
+		assertNotNull("No move found", move);
+		assertTrue("Move changes nothing", move.apply(board) != board);
+		assertTrue("Search took " + millis + "ms", millis < 1000);
+		assertTrue("Wrong depth " + player.getMeanDepth(), player.getMeanDepth() >= 1 && player.getMeanDepth() < 20);
+	}
+
+	@Test
+	public void returnsNullWithoutLegalMoves() {
+		PlayerConfig config = new PlayerConfig();
+		config.setTimeBudgetMillis(5);
+		assertNull("Found a move on a stuck board", new ExpectimaxPlayer(config).findBestMove(0x1212212112122121L));
+	}
+
+	@Test
+	public void avoidsLosingMoves() {
+		// Boards from seeded games where one move always leaves a board with
+		// no moves once the next tile spawns, and another move survives
+		long[] boards = {0x1a72952184307431L, 0x234316482469357aL, 0x312423571279028aL,
+				0x213532481469057aL, 0x541213583169027aL};
+		Direction[] losing = {Direction.LEFT, Direction.UP, Direction.RIGHT, Direction.RIGHT, Direction.RIGHT};
+		for (int i = 0; i < boards.length; i++) {
+			Direction move = new ExpectimaxPlayer(2, 16).findBestMove(boards[i]);
+			assertNotNull("No move found", move);
+			assertTrue("Played a losing move on board " + i, move != losing[i]);
+		}
+	}
+
+	@Test
+	public void agesOnlyTablesItOwns() {
+		long board = 0x0000000000120021L;
+		CountingTable shared = new CountingTable();
+		new ExpectimaxPlayer(2, shared, RowHeuristic.getDefault()).findBestMove(board);
+		assertEquals("Aged a shared table", 0, shared.ages);
+
+		CountingTable owned = new CountingTable();
+		PlayerConfig config = new PlayerConfig();
+		config.setTable(owned);
+		config.setAgesTable(true);
+		ExpectimaxPlayer player = new ExpectimaxPlayer(config);
+		player.findBestMove(board);
+		player.findBestMove(board);
+		assertEquals("Didn't age its own table before each move", 2, owned.ages);
+	}
+
+	/**
+	 * Counts how often the table is aged
+	 */
+	private static class CountingTable extends SharedTranspositionTable {
+
+		int ages = 0;
+
+		CountingTable() {
+			super(10);
+		}
+
+		@Override
+		public void age() {
+			ages++;
+			super.age();
+		}
+	}
+}
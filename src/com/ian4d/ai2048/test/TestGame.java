@@ -0,0 +1,145 @@
+package com.ian4d.ai2048.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+import com.ian4d.ai2048.Board;
+import com.ian4d.ai2048.Game;
+import com.ian4d.ai2048.GamePool;
+import com.ian4d.ai2048.SplittableRandomSource;
+import com.ian4d.ai2048.players.Pattern1;
+
+public class TestGame {
+
+	private int standard_dim = 4;
+	private int small_dim = 2;
+	private int standard_power = 11;
+
+	@Test
+	public void replayFromSeed() {
+		for (int dim : new int[] {small_dim, standard_dim}) {
+			Game game = Game.newGame(dim, standard_power, new Pattern1(), new SplittableRandomSource(42));
+			long seed = game.getSeed();
+			String first = play(game);
+
+			game.restart(new Pattern1(), seed);
+			assertEquals("Failed to replay game from its seed", first, play(game));
+
+			Game other = Game.newGame(dim, standard_power, new Pattern1(), new SplittableRandomSource(42));
+			assertEquals("Failed to reproduce game from the same source", first, play(other));
+		}
+	}
+
+	@Test
+	public void restartResetsBoardInPlace() {
+		// Packed, large and grid boards
+		int[][] sizes = {{standard_dim, standard_power}, {small_dim, standard_power}, {3, 31}};
+		for (int[] size : sizes) {
+			Game game = Game.newGame(size[0], size[1], new Pattern1(), new SplittableRandomSource(7));
+			Board board = game.getBoard();
+			play(game);
+
+			game.restart(new Pattern1(), 99);
+			assertSame("Board was replaced", board, game.getBoard());
+			Game fresh = Game.newGame(size[0], size[1], new Pattern1(), new SplittableRandomSource(7));
+			fresh.restart(new Pattern1(), 99);
+			assertEquals("Reused board plays differently", play(fresh), play(game));
+		}
+	}
+
+	@Test
+	public void randomSourceMatchesSplittableRandom() {
+		SplittableRandomSource source = new SplittableRandomSource(0);
+		for (long seed = -50; seed < 50; seed++) {
+			// Reseeding must give the same values as a new source
+			source.reseed(seed * 0x1234567L);
+			SplittableRandom expected = new SplittableRandom(seed * 0x1234567L);
+			for (int i = 0; i < 100; i++) {
+				int bound = i % 3 == 0 ? 1 << (i % 31) : i + 1;
+				assertEquals("Wrong int", expected.nextInt(bound), source.nextInt(bound));
+				assertEquals("Wrong double", expected.nextDouble(), source.nextDouble(), 0);
+				assertEquals("Wrong long", expected.nextLong(), source.nextLong());
+			}
+		}
+	}
+
+	@Test
+	public void boardTracksMaxTileAndMoves() {
+		// Packed, large and grid boards, with goals some games reach
+		int[][] sizes = {{standard_dim, 8}, {3, 6}, {3, 31}};
+		for (int[] size : sizes) {
+			Game game = Game.newGame(size[0], size[1], new Pattern1(), new SplittableRandomSource(11));
+			int wins = 0;
+			for (int g = 0; g < 20; g++) {
+				game.restart();
+				Board board = game.getBoard();
+				int moves = 0;
+				boolean over = false;
+				while (!over) {
+					over = game.makeMove();
+					if (board.getLastMove() != null) {
+						moves++;
+					}
+					int max = 0;
+					for (int i = 0; i < size[0]; i++) {
+						for (int j = 0; j < size[0]; j++) {
+							max = Math.max(max, board.getTileValue(i, j));
+						}
+					}
+					assertEquals("Wrong max tile", max, board.getMaxTile());
+					assertEquals("Wrong move count", moves, board.getMoveCount());
+					game.startNextTurn();
+				}
+				boolean won = game.getWinCount() > wins;
+				wins = game.getWinCount();
+				assertEquals("Wrong victory", board.getMaxTile() >= 1L << size[1], won);
+			}
+
+			// Overwriting the highest tile by hand finds the next highest
+			Board board = game.getBoard();
+			board.setTiles(new int[size[0]][size[0]]);
+			board.setTileValue(0, 0, 64);
+			board.setTileValue(1, 1, 16);
+			assertEquals("Wrong max tile", 64, board.getMaxTile());
+			board.setTileValue(0, 0, 2);
+			assertEquals("Wrong max tile after overwrite", 16, board.getMaxTile());
+			if (size[1] < 31) {
+				assertTrue("No game won", wins > 0);
+				assertTrue("Every game won", wins < 20);
+			}
+		}
+	}
+
+	@Test
+	public void poolReusesGames() {
+		GamePool pool = GamePool.get();
+		Game game = pool.acquire(standard_dim, standard_power);
+		game.restart(new Pattern1(), 1);
+		Board board = game.getBoard();
+		pool.release(game);
+		assertSame("Game wasn't reused", game, pool.acquire(standard_dim, standard_power));
+		assertSame("Board wasn't kept", board, game.getBoard());
+		game.restart(new Pattern1(), 1);
+		assertSame("Restart replaced the board", board, game.getBoard());
+		Game other = pool.acquire(small_dim, standard_power);
+		assertEquals("Wrong board size", small_dim, other.getBoardDimension());
+		pool.release(other);
+		pool.release(game);
+		assertEquals("Wrong pool size", 2, pool.size());
+	}
+
+	private String play(Game game) {
+		StringBuilder sb = new StringBuilder();
+		while (!game.makeMove()) {
+			game.startNextTurn();
+			sb.append(game.getBoard().toString());
+		}
+		return sb.toString();
+	}
+
+}
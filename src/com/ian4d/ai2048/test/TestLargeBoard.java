@@ -0,0 +1,189 @@
+package com.ian4d.ai2048.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.ian4d.ai2048.Afterstate;
+import com.ian4d.ai2048.BitBoard;
+import com.ian4d.ai2048.Direction;
+import com.ian4d.ai2048.LargeBoard;
+import com.ian4d.ai2048.SplittableRandomSource;
+
+public class TestLargeBoard {
+
+	private int standard_power = 11;
+
+	@Test
+	public void matchesBitBoard() {
+		BitBoard bitBoard = BitBoard.createBitBoard(standard_power, new SplittableRandomSource(1));
+		LargeBoard largeBoard = LargeBoard.createLargeBoard(BitBoard.DIM, standard_power, new SplittableRandomSource(1));
+		Random random = new Random(1);
+		for (int game = 0; game < 20; game++) {
+			bitBoard.empty();
+			largeBoard.empty();
+			while (bitBoard.hasLegalMoves() || bitBoard.getEmptyTileCount() > 0) {
+				assertEquals("Spawn differs", bitBoard.fillRandomTile(2), largeBoard.fillRandomTile(2));
+				Direction direction = Direction.values()[random.nextInt(4)];
+				assertEquals("Legal move differs", direction.apply(bitBoard), direction.apply(largeBoard));
+				assertEquals("Board differs", bitBoard.toString(), largeBoard.toString());
+				assertEquals("Score differs", bitBoard.getScore(), largeBoard.getScore());
+				assertEquals("Empty count differs", bitBoard.getEmptyTileCount(), largeBoard.getEmptyTileCount());
+				assertEquals("Legal moves differ", bitBoard.hasLegalMoves(), largeBoard.hasLegalMoves());
+			}
+		}
+	}
+
+	@Test
+	public void slidesLargeBoards() {
+		Random random = new Random(2);
+		for (int dim : new int[] {5, 9, 16, 32}) {
+			LargeBoard board = LargeBoard.createLargeBoard(dim, standard_power);
+			Afterstate[] afterstates = null;
+			for (int round = 0; round < 50; round++) {
+				int[][] tiles = new int[dim][dim];
+				double fill = random.nextDouble();
+				for (int i = 0; i < dim; i++) {
+					for (int j = 0; j < dim; j++) {
+						if (random.nextDouble() < fill) {
+							tiles[i][j] = 1 << (1 + random.nextInt(3));
+						}
+					}
+				}
+				board.setTiles(tiles);
+				afterstates = board.previewMoves(afterstates);
+				for (Direction direction : Direction.values()) {
+					board.setTiles(tiles);
+					int[][] expected = copy(tiles);
+					int gained = slide(expected, direction);
+					boolean changed = !Arrays.deepEquals(expected, tiles);
+					assertEquals("Wrong legal move", changed, canMove(board, direction));
+					assertEquals("Wrong move result", changed, direction.apply(board));
+					for (int i = 0; i < dim; i++) {
+						assertArrayEquals("Wrong slide " + direction, expected[i], board.getTiles()[i]);
+					}
+					assertEquals("Wrong score", gained, board.getScore());
+					Afterstate afterstate = afterstates[direction.ordinal()];
+					assertEquals("Wrong preview", changed, afterstate.isChanged());
+					assertEquals("Wrong preview score", gained, afterstate.getScoreGain());
+					assertEquals("Wrong preview empty count", board.getEmptyTileCount(), afterstate.getEmptyCount());
+				}
+			}
+		}
+	}
+
+	@Test
+	public void fillsEveryTile() {
+		LargeBoard board = LargeBoard.createLargeBoard(9, standard_power, new SplittableRandomSource(3));
+		for (int i = 0; i < 81; i++) {
+			assertTrue("Failed to fill tile", board.fillRandomTile(2));
+		}
+		assertEquals("Board not full", 0, board.getEmptyTileCount());
+		assertFalse("Filled a full board", board.fillRandomTile(2));
+		assertTrue("Full board of equal tiles has moves", board.hasLegalMoves());
+	}
+
+	@Test
+	public void setCellsTracksTiles() {
+		LargeBoard board = LargeBoard.createLargeBoard(5, standard_power, new SplittableRandomSource(4));
+		byte[] snapshot = new byte[25];
+		snapshot[3] = 9;
+		snapshot[17] = 2;
+		board.setCells(snapshot);
+		assertEquals("Wrong highest tile", 512, board.getMaxTile());
+		assertEquals("Wrong empty tile count", 23, board.getEmptyTileCount());
+		// Dropping the highest tile has to lower it again
+		board.setCells(new byte[25]);
+		assertEquals("Highest tile on an empty board", 0, board.getMaxTile());
+		assertEquals("Wrong empty tile count", 25, board.getEmptyTileCount());
+	}
+
+	private boolean canMove(LargeBoard board, Direction direction) {
+		switch (direction) {
+		case LEFT:
+			return board.canMoveLeft();
+		case RIGHT:
+			return board.canMoveRight();
+		case UP:
+			return board.canMoveUp();
+		default:
+			return board.canMoveDown();
+		}
+	}
+
+	/**
+	 * Reference slide that merges each tile at most once
+	 */
+	private int slide(int[][] tiles, Direction direction) {
+		int dim = tiles.length;
+		int gained = 0;
+		for (int line = 0; line < dim; line++) {
+			int[] values = new int[dim];
+			int count = 0;
+			for (int k = 0; k < dim; k++) {
+				int value = get(tiles, direction, line, k);
+				if (value == 0) {
+					continue;
+				}
+				// Merged tiles are marked negative so they can't merge again
+				if (count > 0 && values[count - 1] == value) {
+					values[count - 1] = -2 * value;
+					gained += 2 * value;
+				} else {
+					values[count++] = value;
+				}
+			}
+			for (int k = 0; k < dim; k++) {
+				set(tiles, direction, line, k, Math.abs(values[k]));
+			}
+		}
+		return gained;
+	}
+
+	private int get(int[][] tiles, Direction direction, int line, int k) {
+		int dim = tiles.length;
+		switch (direction) {
+		case LEFT:
+			return tiles[line][k];
+		case RIGHT:
+			return tiles[line][dim - 1 - k];
+		case UP:
+			return tiles[k][line];
+		default:
+			return tiles[dim - 1 - k][line];
+		}
+	}
+
+	private void set(int[][] tiles, Direction direction, int line, int k, int value) {
+		int dim = tiles.length;
+		switch (direction) {
+		case LEFT:
+			tiles[line][k] = value;
+			break;
+		case RIGHT:
+			tiles[line][dim - 1 - k] = value;
+			break;
+		case UP:
+			tiles[k][line] = value;
+			break;
+		default:
+			tiles[dim - 1 - k][line] = value;
+			break;
+		}
+	}
+
+	private int[][] copy(int[][] tiles) {
+		int[][] copy = new int[tiles.length][];
+		for (int i = 0; i < tiles.length; i++) {
+			copy[i] = tiles[i].clone();
+		}
+		return copy;
+	}
+
+}
@@ -0,0 +1,70 @@
+package com.ian4d.ai2048.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Test;
+
+import com.ian4d.ai2048.players.MappedTranspositionTable;
+
+public class TestMappedTranspositionTable {
+
+	@Test
+	public void survivesReopening() throws IOException {
+		Path path = Files.createTempFile("positions", ".bin");
+		try {
+			MappedTranspositionTable table = new MappedTranspositionTable(path, 10, 7L);
+			table.put(42L, 2, 1.5f);
+			table.close();
+
+			table = new MappedTranspositionTable(path, 10, 7L);
+			assertEquals("Entry lost on reopening", 1.5f, table.get(42L, 2), 0f);
+			table.close();
+
+			table = new MappedTranspositionTable(path, 10, 8L);
+			assertTrue("Entry kept with another fingerprint", Float.isNaN(table.get(42L, 0)));
+			table.close();
+		} finally {
+			Files.delete(path);
+		}
+	}
+
+	@Test
+	public void sharedBetweenMappings() throws IOException {
+		Path path = Files.createTempFile("positions", ".bin");
+		try {
+			MappedTranspositionTable first = new MappedTranspositionTable(path, 10, 7L);
+			MappedTranspositionTable second = new MappedTranspositionTable(path, 10, 7L);
+			first.put(42L, 1, 3f);
+			assertEquals("Entry not visible to another mapping", 3f, second.get(42L, 1), 0f);
+			first.close();
+			second.close();
+		} finally {
+			Files.delete(path);
+		}
+	}
+
+	@Test
+	public void ignoresEntriesFromOldFingerprint() throws IOException {
+		Path path = Files.createTempFile("positions", ".bin");
+		try {
+			// The old process keeps writing after the new one wiped the file
+			MappedTranspositionTable old = new MappedTranspositionTable(path, 10, 7L);
+			MappedTranspositionTable current = new MappedTranspositionTable(path, 10, 8L);
+			old.put(42L, 2, 1.5f);
+			assertTrue("Entry from the old fingerprint accepted", Float.isNaN(current.get(42L, 2)));
+			current.put(43L, 2, 2.5f);
+			assertTrue("Entry from the new fingerprint accepted", Float.isNaN(old.get(43L, 2)));
+			assertEquals("Entry lost", 2.5f, current.get(43L, 2), 0f);
+			old.close();
+			current.close();
+		} finally {
+			Files.delete(path);
+		}
+	}
+
+}
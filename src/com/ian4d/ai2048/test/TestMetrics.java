@@ -0,0 +1,197 @@
+package com.ian4d.ai2048.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.ian4d.ai2048.Direction;
+import com.ian4d.ai2048.Game;
+import com.ian4d.ai2048.SplittableRandomSource;
+import com.ian4d.ai2048.Tournament;
+import com.ian4d.ai2048.TournamentResult;
+import com.ian4d.ai2048.events.IGameListener;
+import com.ian4d.ai2048.events.IProgressListener;
+import com.ian4d.ai2048.metrics.GameMetrics;
+import com.ian4d.ai2048.metrics.GameResults;
+import com.ian4d.ai2048.metrics.GameStatistics;
+import com.ian4d.ai2048.metrics.Histogram;
+import com.ian4d.ai2048.players.ClassPlayerFactory;
+import com.ian4d.ai2048.players.Pattern1;
+
+public class TestMetrics {
+
+	@Test
+	public void histogramPercentiles() {
+		Histogram histogram = new Histogram();
+		assertEquals("Empty histogram has a percentile", 0, histogram.getPercentile(50));
+		for (int i = 1; i <= 1000000; i++) {
+			histogram.record(i);
+		}
+		assertEquals("Wrong count", 1000000, histogram.getCount());
+		assertEquals("Wrong max", 1000000, histogram.getMax());
+		assertEquals("Wrong mean", 500000.5, histogram.getMean(), 1e-6);
+		assertWithin("Wrong p50", 500000, histogram.getPercentile(50));
+		assertWithin("Wrong p99", 990000, histogram.getPercentile(99));
+		assertEquals("Wrong p100", 1000000, histogram.getPercentile(100));
+
+		Histogram small = new Histogram();
+		for (int i = 0; i < 10; i++) {
+			small.record(i);
+		}
+		assertEquals("Small values aren't exact", 4, small.getPercentile(50));
+		histogram.merge(small);
+		assertEquals("Wrong merged count", 1000010, histogram.getCount());
+	}
+
+	@Test
+	public void gameReportsMetrics() {
+		GameMetrics metrics = new GameMetrics();
+		Game game = Game.newGame(4, 11, new Pattern1(), new SplittableRandomSource(7));
+		game.addGameListener(metrics);
+		int turns = 0;
+		for (int i = 0; i < 5; i++) {
+			game.restart();
+			while (!game.makeMove()) {
+				game.startNextTurn();
+			}
+			turns += game.getTurns();
+		}
+		assertEquals("Wrong game count", 5, metrics.getGames());
+		assertEquals("Wrong move count", turns, metrics.getMoves());
+		assertEquals("Wrong turn count", turns, (long) (metrics.getTurns().getMean() * 5 + 0.5));
+		assertTrue("No latency recorded", metrics.getMoveNanos().getMax() > 0);
+		long tiles = 0;
+		for (int tile = 2; tile <= 2048; tile *= 2) {
+			tiles += metrics.getMaxTileCount(tile);
+		}
+		assertEquals("Max tiles don't add up", 5, tiles);
+	}
+
+	@Test
+	public void statisticsMerge() {
+		Random random = new Random(3);
+		GameStatistics whole = new GameStatistics();
+		GameStatistics[] parts = {new GameStatistics(), new GameStatistics(), new GameStatistics()};
+		double sum = 0;
+		double squares = 0;
+		int n = 10000;
+		for (int i = 0; i < n; i++) {
+			int score = 100000 + random.nextInt(5000);
+			boolean won = i % 4 == 0;
+			int tile = 1 << (8 + i % 3);
+			whole.addGame(won, score, tile);
+			parts[i % 7 % 3].addGame(won, score, tile);
+			sum += score;
+			squares += (double) score * score;
+		}
+		GameStatistics merged = new GameStatistics();
+		for (GameStatistics part : parts) {
+			merged.merge(part);
+		}
+		double variance = (squares - sum * sum / n) / (n - 1);
+		for (GameStatistics statistics : new GameStatistics[] {whole, merged, merged.copy()}) {
+			assertEquals("Wrong game count", n, statistics.getGames());
+			assertEquals("Wrong win rate", 0.25, statistics.getWinRate(), 1e-12);
+			assertEquals("Wrong mean", sum / n, statistics.getMeanScore(), 1e-6);
+			assertEquals("Wrong variance", variance, statistics.getScoreVariance(), variance * 1e-9);
+			assertWithin("Wrong p50", 102500, statistics.getScorePercentile(50));
+			assertEquals("Wrong max tile count", 3334, statistics.getMaxTileCount(256));
+		}
+	}
+
+	@Test
+	public void resultsMerge() {
+		GameResults first = new GameResults();
+		GameResults second = new GameResults();
+		first.record(true, 20000, 2048);
+		first.record(false, 9000, 1024);
+		second.record(false, 8000, 1024);
+		first.merge(second);
+		assertEquals("Wrong game count", 3, first.getGames());
+		assertEquals("Wrong win count", 1, first.getWins());
+		assertEquals("Wrong max tile count", 2, first.getMaxTileCount(1024));
+		assertEquals("Wrong max score", 20000, first.getScores().getMax());
+		first.reset();
+		assertEquals("Games left after reset", 0, first.getGames());
+		assertEquals("Tiles left after reset", 0, first.getMaxTileCount(2048));
+	}
+
+	@Test
+	public void winRateInterval() {
+		GameStatistics statistics = new GameStatistics();
+		assertEquals("Empty interval too narrow", 0, statistics.getWinRateLower(GameStatistics.Z_95), 0);
+		assertEquals("Empty interval too narrow", 1, statistics.getWinRateUpper(GameStatistics.Z_95), 0);
+		for (int i = 0; i < 100; i++) {
+			statistics.addGame(i < 50, 0, 2);
+		}
+		assertEquals("Wrong lower bound", 0.4038, statistics.getWinRateLower(GameStatistics.Z_95), 1e-4);
+		assertEquals("Wrong upper bound", 0.5962, statistics.getWinRateUpper(GameStatistics.Z_95), 1e-4);
+
+		GameStatistics allWon = new GameStatistics();
+		for (int i = 0; i < 10; i++) {
+			allWon.addGame(true, 0, 2048);
+		}
+		assertEquals("Wrong upper bound", 1, allWon.getWinRateUpper(GameStatistics.Z_95), 1e-12);
+		assertEquals("Wrong lower bound", 0.7225, allWon.getWinRateLower(GameStatistics.Z_95), 1e-4);
+	}
+
+	@Test
+	public void tournamentReportsProgress() throws InterruptedException {
+		Tournament tournament = Tournament.newTournament(4, 11, 2, new SplittableRandomSource(5));
+		// Slow games down so reports come before the end
+		tournament.addGameListener(new IGameListener() {
+			@Override
+			public void gameStarted(long seed, int dim, int maxPower) {
+			}
+
+			@Override
+			public void turnPlayed(int turn, Direction move, long nanos, int score) {
+			}
+
+			@Override
+			public void tileSpawned(int index, int value) {
+			}
+
+			@Override
+			public void gameEnded(int turns, int score, int maxTile, boolean won) {
+				try {
+					Thread.sleep(5);
+				} catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		});
+		final List<TournamentResult> snapshots = new ArrayList<TournamentResult>();
+		tournament.setProgressListener(new IProgressListener() {
+			@Override
+			public void progressReported(TournamentResult snapshot) {
+				snapshots.add(snapshot);
+			}
+		}, 10);
+		try {
+			TournamentResult result = tournament.play(new ClassPlayerFactory(Pattern1.class), 40);
+			assertEquals("Wrong game count", 40, result.getStatistics().getGames());
+			assertEquals("Statistics disagree with totals", result.getAverageScore(), result.getStatistics().getMeanScore(), 1e-6);
+			assertTrue("No progress reported", snapshots.size() > 0);
+			long last = 0;
+			for (TournamentResult snapshot : snapshots) {
+				assertTrue("Empty snapshot reported", snapshot.getGames() > 0);
+				assertTrue("Progress went backwards", snapshot.getGames() >= last);
+				last = snapshot.getGames();
+			}
+			assertTrue("Snapshot counted unplayed games", last <= 40);
+		} finally {
+			tournament.shutdown();
+		}
+	}
+
+	private void assertWithin(String message, long expected, long actual) {
+		assertTrue(message + ": " + actual, Math.abs(actual - expected) <= expected / 32);
+	}
+
+}
@@ -0,0 +1,53 @@
+package com.ian4d.ai2048.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import com.ian4d.ai2048.BitBoard;
+import com.ian4d.ai2048.Direction;
+import com.ian4d.ai2048.SplittableRandomSource;
+import com.ian4d.ai2048.players.MonteCarloPlayer;
+
+public class TestMonteCarloPlayer {
+
+	@Test
+	public void choosesLegalMoves() {
+		// No time budget plays one round of rollouts per task, so seeded
+		// players always agree
+		ForkJoinPool pool = new ForkJoinPool(2);
+		try {
+			MonteCarloPlayer player = new MonteCarloPlayer(0, pool, new SplittableRandomSource(1));
+			MonteCarloPlayer same = new MonteCarloPlayer(0, pool, new SplittableRandomSource(1));
+			SplittableRandomSource random = new SplittableRandomSource(2);
+			long board = BitBoard.spawnRandomTile(BitBoard.spawnRandomTile(0L, random), random);
+			for (int turn = 0; turn < 50; turn++) {
+				Direction move = player.findBestMove(board);
+				assertNotNull("No move on turn " + turn, move);
+				assertTrue("Illegal move on turn " + turn, move.apply(board) != board);
+				assertEquals("Seeded players disagree on turn " + turn, move, same.findBestMove(board));
+				board = BitBoard.spawnRandomTile(move.apply(board), random);
+			}
+			assertTrue("No rollouts played", player.getRolloutsPerMove() > 0);
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void stuckBoardHasNoMove() {
+		ForkJoinPool pool = new ForkJoinPool(1);
+		try {
+			MonteCarloPlayer player = new MonteCarloPlayer(0, pool, new SplittableRandomSource(1));
+			// 2s and 4s in a checkerboard, nothing can move or merge
+			assertNull("Moved on a stuck board", player.findBestMove(0x1212212112122121L));
+		} finally {
+			pool.shutdown();
+		}
+	}
+}
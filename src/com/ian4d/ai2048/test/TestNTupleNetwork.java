@@ -0,0 +1,82 @@
+package com.ian4d.ai2048.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.ian4d.ai2048.Direction;
+import com.ian4d.ai2048.SplittableRandomSource;
+import com.ian4d.ai2048.Symmetry;
+import com.ian4d.ai2048.TournamentResult;
+import com.ian4d.ai2048.players.NTupleNetwork;
+import com.ian4d.ai2048.players.NTuplePlayer;
+import com.ian4d.ai2048.players.TemporalDifferenceTrainer;
+
+public class TestNTupleNetwork {
+
+	@Test
+	public void valuesSymmetricBoardsEqually() {
+		NTupleNetwork network = new NTupleNetwork(NTupleNetwork.SMALL_TUPLES);
+		Random random = new Random(1);
+		for (int i = 0; i < 1000; i++) {
+			network.update(randomBoard(random), random.nextFloat() - 0.5f);
+		}
+		for (int i = 0; i < 1000; i++) {
+			long board = randomBoard(random);
+			for (Symmetry symmetry : Symmetry.values()) {
+				assertEquals(symmetry.toString(), network.evaluate(board), network.evaluate(symmetry.apply(board)), 1e-3f);
+			}
+		}
+	}
+
+	@Test
+	public void updatesSelectedWeights() {
+		NTupleNetwork network = new NTupleNetwork(new int[][] {{0, 1}});
+		assertEquals("Wrong lookup count", 8, network.getLookupCount());
+		// Tiles 0 and 1 hold exponents 3 and 2. The transposed tuple reads
+		// tiles 0 and 4, and the other six orientations read empty corners.
+		long board = 0x23L;
+		network.update(board, 1f);
+		assertEquals("Wrong weight", 1f, network.getWeights(0)[0x32], 0f);
+		assertEquals("Wrong weight", 1f, network.getWeights(0)[0x30], 0f);
+		assertEquals("Wrong weight", 6f, network.getWeights(0)[0], 0f);
+		assertEquals("Wrong value", 1f + 1f + 6f * 6f, network.evaluate(board), 0f);
+	}
+
+	@Test
+	public void improvesWithTraining() throws InterruptedException {
+		NTupleNetwork network = new NTupleNetwork(NTupleNetwork.SMALL_TUPLES);
+		TemporalDifferenceTrainer trainer = TemporalDifferenceTrainer.newTrainer(network, 2, new SplittableRandomSource(1));
+		try {
+			TournamentResult first = trainer.train(500);
+			TournamentResult second = trainer.train(500);
+			assertEquals("Wrong game count", 500, second.getGames());
+			assertTrue("No improvement from " + first.getAverageScore() + " to " + second.getAverageScore(),
+					second.getAverageScore() > first.getAverageScore());
+		} finally {
+			trainer.shutdown();
+		}
+
+		// The trained player never picks a move that changes nothing
+		NTuplePlayer player = new NTuplePlayer(network);
+		Random random = new Random(2);
+		for (int i = 0; i < 1000; i++) {
+			long board = randomBoard(random);
+			Direction move = player.findBestMove(board);
+			assertTrue("Illegal move", move == null || move.apply(board) != board);
+		}
+	}
+
+	private long randomBoard(Random random) {
+		long board = 0;
+		for (int i = 0; i < 16; i++) {
+			if (random.nextInt(3) > 0) {
+				board |= (long) (1 + random.nextInt(10)) << (4 * i);
+			}
+		}
+		return board;
+	}
+}
@@ -0,0 +1,65 @@
+package com.ian4d.ai2048.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.ian4d.ai2048.Game;
+import com.ian4d.ai2048.SplittableRandomSource;
+import com.ian4d.ai2048.players.RandomPattern;
+import com.ian4d.ai2048.replay.GameRecord;
+import com.ian4d.ai2048.replay.GameRecorder;
+import com.ian4d.ai2048.replay.ReplayReader;
+import com.ian4d.ai2048.replay.ReplayWriter;
+
+public class TestReplay {
+
+	private int standard_power = 11;
+
+	@Test
+	public void replayRoundTrip() throws IOException {
+		Path path = Files.createTempFile("replay", ".bin");
+		try {
+			List<String> finals = new ArrayList<String>();
+			ReplayWriter writer = new ReplayWriter(path);
+			try {
+				for (int dim : new int[] {2, 4, 5}) {
+					Game game = Game.newGame(dim, standard_power, new RandomPattern(), new SplittableRandomSource(dim));
+					game.addGameListener(new GameRecorder(writer));
+					for (int i = 0; i < 3; i++) {
+						game.restart();
+						while (!game.makeMove()) {
+							game.startNextTurn();
+						}
+						finals.add(game.getBoard().toString());
+					}
+				}
+			} finally {
+				writer.close();
+			}
+
+			ReplayReader reader = new ReplayReader(path);
+			try {
+				GameRecord record = new GameRecord();
+				for (String expected : finals) {
+					assertTrue("Missing game in replay file", reader.next(record));
+					assertEquals("Replay didn't reach the recorded final board", expected, record.replay().toString());
+				}
+				assertFalse("Unexpected game in replay file", reader.next(record));
+			} finally {
+				reader.close();
+			}
+		} finally {
+			Files.delete(path);
+		}
+	}
+
+}
@@ -0,0 +1,55 @@
+package com.ian4d.ai2048.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.ian4d.ai2048.BitBoard;
+import com.ian4d.ai2048.players.HeuristicWeights;
+import com.ian4d.ai2048.players.RowHeuristic;
+
+public class TestRowHeuristic {
+
+	@Test
+	public void countsEmptyTiles() {
+		HeuristicWeights weights = onlyEmpty();
+		RowHeuristic heuristic = new RowHeuristic(weights);
+		BitBoard board = BitBoard.createBitBoard(11);
+		assertEquals("Wrong empty board score", 32f, heuristic.evaluate(board), 0f);
+
+		board.setTileValue(0, 0, 2);
+		board.setTileValue(3, 2, 8);
+		// Each tile is counted once in its row and once in its column
+		assertEquals("Wrong score", 28f, heuristic.evaluate(board), 0f);
+	}
+
+	@Test
+	public void weightsApplyWhenBuilt() {
+		HeuristicWeights weights = onlyEmpty();
+		RowHeuristic heuristic = new RowHeuristic(weights);
+		weights.setEmptyWeight(10f);
+		assertEquals("Weights changed after build", 32f, heuristic.evaluate(0L), 0f);
+		assertEquals("Wrong weight", 320f, new RowHeuristic(weights).evaluate(0L), 0f);
+	}
+
+	@Test
+	public void prefersMonotonicRows() {
+		RowHeuristic heuristic = RowHeuristic.getDefault();
+		int ordered = 0x1234;
+		int unordered = 0x1324;
+		assertTrue("Unordered row scored higher", heuristic.evaluateRow(ordered) > heuristic.evaluateRow(unordered));
+		assertEquals("Mirrored rows differ", heuristic.evaluateRow(ordered), heuristic.evaluateRow(0x4321), 0f);
+	}
+
+	private HeuristicWeights onlyEmpty() {
+		HeuristicWeights weights = new HeuristicWeights();
+		weights.setBaseScore(0f);
+		weights.setEmptyWeight(1f);
+		weights.setMergeWeight(0f);
+		weights.setMonotonicityWeight(0f);
+		weights.setSumWeight(0f);
+		return weights;
+	}
+
+}
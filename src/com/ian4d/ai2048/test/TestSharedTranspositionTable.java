@@ -0,0 +1,76 @@
+package com.ian4d.ai2048.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+import com.ian4d.ai2048.players.SharedTranspositionTable;
+
+public class TestSharedTranspositionTable {
+
+	@Test
+	public void storesByDepth() {
+		SharedTranspositionTable table = new SharedTranspositionTable(4);
+		assertTrue("Empty table hit", Float.isNaN(table.get(42L, 0)));
+		table.put(42L, 2, 1.5f);
+		assertEquals("Wrong value", 1.5f, table.get(42L, 2), 0f);
+		assertTrue("Shallow entry used for a deeper search", Float.isNaN(table.get(42L, 3)));
+		table.put(42L, 1, 9f);
+		assertEquals("Deeper entry replaced", 1.5f, table.get(42L, 1), 0f);
+		assertEquals("Wrong hits", 2, table.getHits());
+		assertEquals("Wrong misses", 2, table.getMisses());
+	}
+
+	@Test
+	public void replacesOldGenerationsFirst() {
+		// One bucket, so every board competes for the same entries
+		SharedTranspositionTable table = new SharedTranspositionTable(1);
+		table.put(1L, 5, 1f);
+		table.age();
+		table.put(2L, 3, 2f);
+		table.put(3L, 1, 3f);
+		assertTrue("Old entry survived", Float.isNaN(table.get(1L, 0)));
+		assertEquals("Current entry replaced", 2f, table.get(2L, 0), 0f);
+		assertEquals("New entry missing", 3f, table.get(3L, 0), 0f);
+
+		table.put(4L, 0, 4f);
+		assertEquals("Deeper entry replaced", 2f, table.get(2L, 0), 0f);
+		assertTrue("Shallower entry survived", Float.isNaN(table.get(3L, 0)));
+		assertEquals("Wrong collisions", 2, table.getCollisions());
+	}
+
+	@Test
+	public void concurrentUseNeverReturnsWrongValues() throws InterruptedException {
+		final SharedTranspositionTable table = new SharedTranspositionTable(8);
+		final AtomicLong wrong = new AtomicLong();
+		Thread[] threads = new Thread[4];
+		for (int t = 0; t < threads.length; t++) {
+			final long seed = t;
+			threads[t] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					SplittableRandom random = new SplittableRandom(seed);
+					for (int i = 0; i < 200000; i++) {
+						long board = random.nextLong(1024);
+						float value = table.get(board, 0);
+						if (!Float.isNaN(value) && value != board) {
+							wrong.incrementAndGet();
+						}
+						table.put(board, random.nextInt(4), board);
+					}
+				}
+			});
+			threads[t].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertEquals("Read a value stored for another board", 0, wrong.get());
+		assertTrue("No hits", table.getHits() > 0);
+	}
+
+}
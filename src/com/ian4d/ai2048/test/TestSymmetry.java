@@ -0,0 +1,131 @@
+package com.ian4d.ai2048.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.ian4d.ai2048.Board;
+import com.ian4d.ai2048.Direction;
+import com.ian4d.ai2048.Game;
+import com.ian4d.ai2048.Symmetry;
+
+public class TestSymmetry {
+
+	private int standard_power = 11;
+
+	@Test
+	public void movesCommuteOnPackedBoards() {
+		Random random = new Random(1);
+		for (int round = 0; round < 1000; round++) {
+			long board = randomBoard(random);
+			for (Symmetry symmetry : Symmetry.values()) {
+				for (Direction direction : Direction.values()) {
+					assertEquals(symmetry + " " + direction,
+							symmetry.apply(direction.apply(board)),
+							symmetry.apply(direction).apply(symmetry.apply(board)));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void movesCommuteOnGrids() {
+		Random random = new Random(2);
+		for (int dim : new int[] {3, 4, 5}) {
+			Board board = Game.createBoard(dim, standard_power, null);
+			for (int round = 0; round < 100; round++) {
+				int[][] tiles = randomTiles(random, dim);
+				for (Symmetry symmetry : Symmetry.values()) {
+					for (Direction direction : Direction.values()) {
+						board.setTiles(tiles);
+						direction.apply(board);
+						int[][] expected = symmetry.apply(board.getTiles());
+						board.setTiles(symmetry.apply(tiles));
+						symmetry.apply(direction).apply(board);
+						assertArrayEquals(symmetry + " " + direction, expected, board.getTiles());
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void packedMatchesGrid() {
+		Random random = new Random(3);
+		for (int round = 0; round < 1000; round++) {
+			long board = randomBoard(random);
+			for (Symmetry symmetry : Symmetry.values()) {
+				assertArrayEquals(symmetry.toString(), symmetry.apply(unpack(board)), unpack(symmetry.apply(board)));
+				assertEquals(board, symmetry.inverse().apply(symmetry.apply(board)));
+			}
+		}
+	}
+
+	@Test
+	public void canonicalIsSharedBySymmetricBoards() {
+		Random random = new Random(4);
+		for (int round = 0; round < 1000; round++) {
+			long board = randomBoard(random);
+			long canonical = Symmetry.canonical(board);
+			int[][] canonicalTiles = Symmetry.canonical(unpack(board));
+			assertEquals(canonical, Symmetry.canonicalSymmetry(board).apply(board));
+			for (Symmetry symmetry : Symmetry.values()) {
+				assertEquals(canonical, Symmetry.canonical(symmetry.apply(board)));
+				assertArrayEquals(canonicalTiles, Symmetry.canonical(symmetry.apply(unpack(board))));
+			}
+		}
+	}
+
+	@Test
+	public void mapsMovesBackFromCanonicalBoard() {
+		Random random = new Random(5);
+		for (int round = 0; round < 1000; round++) {
+			long board = randomBoard(random);
+			Symmetry symmetry = Symmetry.canonicalSymmetry(board);
+			long canonical = symmetry.apply(board);
+			for (Direction direction : Direction.values()) {
+				Direction original = symmetry.inverse().apply(direction);
+				assertEquals(direction.apply(canonical), symmetry.apply(original.apply(board)));
+			}
+		}
+	}
+
+	/**
+	 * Fills a packed board with a random mix of small exponents and gaps
+	 */
+	private long randomBoard(Random random) {
+		long board = 0;
+		for (int i = 0; i < 16; i++) {
+			if (random.nextInt(3) > 0) {
+				board |= (long) (1 + random.nextInt(4)) << (4 * i);
+			}
+		}
+		return board;
+	}
+
+	private int[][] randomTiles(Random random, int dim) {
+		int[][] tiles = new int[dim][dim];
+		for (int i = 0; i < dim; i++) {
+			for (int j = 0; j < dim; j++) {
+				if (random.nextInt(3) > 0) {
+					tiles[i][j] = 1 << (1 + random.nextInt(3));
+				}
+			}
+		}
+		return tiles;
+	}
+
+	/**
+	 * @return The exponents of a packed board as a grid
+	 */
+	private int[][] unpack(long board) {
+		int[][] tiles = new int[4][4];
+		for (int i = 0; i < 16; i++) {
+			tiles[i / 4][i % 4] = (int) ((board >>> (4 * i)) & 0xF);
+		}
+		return tiles;
+	}
+}
@@ -0,0 +1,94 @@
+package com.ian4d.ai2048.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.ian4d.ai2048.SplittableRandomSource;
+import com.ian4d.ai2048.Tournament;
+import com.ian4d.ai2048.TournamentResult;
+import com.ian4d.ai2048.players.AllLeft;
+import com.ian4d.ai2048.players.ClassPlayerFactory;
+import com.ian4d.ai2048.players.IPlayer;
+import com.ian4d.ai2048.players.IPlayerFactory;
+import com.ian4d.ai2048.players.Pattern1;
+
+public class TestTournament {
+
+	private int standard_dim = 4;
+	private int standard_power = 11;
+
+	@Test
+	public void playsEveryGame() throws InterruptedException {
+		TournamentResult result = play(3, new ClassPlayerFactory(Pattern1.class), 101);
+		assertEquals("Wrong number of games", 101, result.getGames());
+		assertEquals("Wins and losses don't add up", 101, result.getWins() + result.getLosses());
+		assertEquals("Stalled games", 0, result.getStalled());
+		assertEquals("Wrong player name", "Pattern1", result.getPlayerName());
+		assertEquals("Statistics disagree", 101, result.getStatistics().getGames());
+	}
+
+	@Test
+	public void seededResultsIgnoreWorkerCount() throws InterruptedException {
+		TournamentResult single = play(1, new ClassPlayerFactory(Pattern1.class), 60);
+		for (int workers : new int[] {2, 4}) {
+			TournamentResult result = play(workers, new ClassPlayerFactory(Pattern1.class), 60);
+			assertEquals("Results differ on " + workers + " workers", summarize(single), summarize(result));
+			// Merging in a different order only changes the rounding
+			assertEquals("Variance differs on " + workers + " workers", single.getStatistics().getScoreVariance(),
+					result.getStatistics().getScoreVariance(), 1e-6);
+		}
+	}
+
+	@Test
+	public void stalledGamesAreLosses() throws InterruptedException {
+		// Moving left alone soon stops changing the board without ending the game
+		Tournament tournament = Tournament.newTournament(standard_dim, standard_power, 2, new SplittableRandomSource(3));
+		tournament.setMaxTurns(50);
+		try {
+			TournamentResult result = tournament.play(new ClassPlayerFactory(AllLeft.class), 20);
+			assertEquals("Wrong number of games", 20, result.getGames());
+			assertTrue("Games weren't cut off", result.getStalled() > 10);
+			assertEquals("Stalled games won", 20, result.getLosses());
+			assertTrue("Games ran past the turn limit", result.getAverageTurns() <= 50);
+		} finally {
+			tournament.shutdown();
+		}
+	}
+
+	@Test
+	public void namesFactoriesWithoutPlayerName() throws InterruptedException {
+		Tournament tournament = Tournament.newTournament(standard_dim, standard_power, 1, new SplittableRandomSource(2));
+		try {
+			TournamentResult result = tournament.play(new Pattern1Factory(), 2);
+			assertEquals("Wrong default name", "Pattern1Factory", result.getPlayerName());
+		} finally {
+			tournament.shutdown();
+		}
+	}
+
+	private TournamentResult play(int workers, ClassPlayerFactory factory, int games) throws InterruptedException {
+		Tournament tournament = Tournament.newTournament(standard_dim, standard_power, workers, new SplittableRandomSource(7));
+		try {
+			return tournament.play(factory, games);
+		} finally {
+			tournament.shutdown();
+		}
+	}
+
+	private String summarize(TournamentResult result) {
+		return result.getGames() + " " + result.getWins() + " " + result.getAverageScore() + " "
+				+ result.getBestScore() + " " + result.getAverageTurns() + " " + result.getHighestTile();
+	}
+
+	/**
+	 * A factory written before factories named their players
+	 */
+	private static class Pattern1Factory implements IPlayerFactory {
+		@Override
+		public IPlayer createPlayer() {
+			return new Pattern1();
+		}
+	}
+}
@@ -0,0 +1,140 @@
+package com.ian4d.ai2048.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.ian4d.ai2048.players.NTupleNetwork;
+import com.ian4d.ai2048.players.WeightFile;
+
+public class TestWeightFile {
+
+	@Test
+	public void roundTripsTables() throws IOException {
+		Path path = Files.createTempFile("weights", ".bin");
+		try {
+			float[][] tables = {{1f, 2f, 3f}, {}, {-4.5f}};
+			WeightFile.write(path, 9L, new long[] {10L, 20L, 30L}, tables);
+			for (WeightFile file : new WeightFile[] {WeightFile.open(path), WeightFile.load(path)}) {
+				file.verify();
+				assertEquals("Wrong kind", 9L, file.getKind());
+				assertEquals("Wrong table count", 3, file.getTableCount());
+				for (int t = 0; t < tables.length; t++) {
+					assertEquals("Wrong tag", 10L * (t + 1), file.getTag(t));
+					assertEquals("Wrong length", tables[t].length, file.getTable(t).capacity());
+					for (int i = 0; i < tables[t].length; i++) {
+						assertEquals("Wrong weight", tables[t][i], file.getTable(t).get(i), 0f);
+					}
+				}
+			}
+			assertTrue("Not mapped", WeightFile.open(path).isMapped());
+			assertFalse("Mapped when loading", WeightFile.load(path).isMapped());
+		} finally {
+			Files.delete(path);
+		}
+	}
+
+	@Test
+	public void detectsCorruption() throws IOException {
+		Path path = Files.createTempFile("weights", ".bin");
+		try {
+			WeightFile.write(path, 9L, new long[] {0L}, new float[][] {{1f, 2f, 3f}});
+			long end = Files.size(path);
+			try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+				channel.write(ByteBuffer.wrap(new byte[] {1}), end - 1);
+			}
+
+			// Opening only checks the header, the data is checked on demand
+			WeightFile file = WeightFile.open(path);
+			try {
+				file.verify();
+				fail("Corrupt data verified");
+			} catch (IOException expected) {
+			}
+			try {
+				WeightFile.load(path);
+				fail("Corrupt data loaded");
+			} catch (IOException expected) {
+			}
+
+			try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+				channel.write(ByteBuffer.wrap(new byte[] {1}), 16);
+			}
+			try {
+				WeightFile.open(path);
+				fail("Corrupt header opened");
+			} catch (IOException expected) {
+			}
+		} finally {
+			Files.delete(path);
+		}
+	}
+
+	@Test
+	public void keepsFilesReadable() throws IOException {
+		Path dir = Files.createTempDirectory("weights");
+		Path path = dir.resolve("weights.bin");
+		try {
+			if (!Files.getFileStore(dir).supportsFileAttributeView(PosixFileAttributeView.class)) {
+				return;
+			}
+			WeightFile.write(path, 1L, new long[] {0L}, new float[][] {{1f}});
+			assertTrue("Other users can't read a new file",
+					Files.getPosixFilePermissions(path).contains(PosixFilePermission.OTHERS_READ));
+
+			Set<PosixFilePermission> shared = PosixFilePermissions.fromString("rw-rw----");
+			Files.setPosixFilePermissions(path, shared);
+			WeightFile.write(path, 1L, new long[] {0L}, new float[][] {{2f}});
+			assertEquals("Replacing the file changed its permissions", shared, Files.getPosixFilePermissions(path));
+		} finally {
+			Files.deleteIfExists(path);
+			Files.delete(dir);
+		}
+	}
+
+	@Test
+	public void savesNetworks() throws IOException {
+		Path path = Files.createTempFile("network", ".bin");
+		try {
+			NTupleNetwork network = new NTupleNetwork(NTupleNetwork.SMALL_TUPLES);
+			Random random = new Random(1);
+			for (int i = 0; i < 1000; i++) {
+				network.update(random.nextLong(), random.nextFloat());
+			}
+			network.save(path);
+
+			NTupleNetwork opened = NTupleNetwork.open(path);
+			NTupleNetwork loaded = NTupleNetwork.load(path);
+			assertTrue("Opened network is writable", opened.isReadOnly());
+			assertFalse("Loaded network is read only", loaded.isReadOnly());
+			assertEquals("Wrong tuple count", network.getTupleCount(), opened.getTupleCount());
+			for (int i = 0; i < 1000; i++) {
+				long board = random.nextLong();
+				assertEquals("Opened value differs", network.evaluate(board), opened.evaluate(board), 0f);
+				assertEquals("Loaded value differs", network.evaluate(board), loaded.evaluate(board), 0f);
+			}
+			try {
+				opened.update(0L, 1f);
+				fail("Updated mapped weights");
+			} catch (IllegalStateException expected) {
+			}
+		} finally {
+			Files.delete(path);
+		}
+	}
+}